@@ -0,0 +1,133 @@
+package com.t.claimlistftb.client;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a 1M-row history CSV: ClaimCsvParser against the line-at-a-time split parser it
+ * replaced (kept below as it was, so the comparison stays fixed as the parser changes).
+ * Names are mostly plain, with some quoted ones containing commas and quotes; the split
+ * parser misreads those rows, which is part of why it was replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClaimCsvParserBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final List<ResourceKey<Level>> DIMENSIONS = List.of(Level.OVERWORLD, Level.NETHER, Level.END);
+
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        UUID[] teams = new UUID[500];
+        String[] names = new String[teams.length];
+        for (int i = 0; i < teams.length; i++) {
+            teams[i] = new UUID(random.nextLong(), random.nextLong());
+            names[i] = i % 20 == 0 ? "Team, \"" + i + "\"" : "Team" + i;
+        }
+        ClaimChangeReader.ChangeType[] types = ClaimChangeReader.ChangeType.values();
+
+        file = Files.createTempFile("claimlistftb-bench", ".csv");
+        LocalDateTime time = LocalDateTime.of(2025, 1, 1, 0, 0);
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(ClaimChangeJournal.CSV_HEADER);
+            for (int i = 0; i < ROWS; i++) {
+                // Claims come in runs by the same team, as they do on a real server
+                int team = (i / 8) % teams.length;
+                time = time.plusSeconds(random.nextInt(30));
+                out.write(new ClaimChangeReader.ClaimChange(time, teams[team], names[team],
+                        DIMENSIONS.get(random.nextInt(DIMENSIONS.size())), random.nextInt(20000) - 10000,
+                        random.nextInt(20000) - 10000, types[random.nextInt(types.length)]).toCsvLine());
+                out.write('\n');
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void streaming(Blackhole blackhole) throws IOException {
+        try (ClaimCsvParser parser = ClaimCsvParser.open(file)) {
+            ClaimChangeReader.ClaimChange change;
+            while ((change = parser.next()) != null) {
+                blackhole.consume(change);
+            }
+        }
+    }
+
+    @Benchmark
+    public void split(Blackhole blackhole) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            // Skip header
+            reader.readLine();
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                ClaimChangeReader.ClaimChange change = splitLine(line);
+                if (change != null) {
+                    blackhole.consume(change);
+                }
+            }
+        }
+    }
+
+    // === The split-based parser from before ClaimCsvParser ===
+
+    private static ClaimChangeReader.ClaimChange splitLine(String line) {
+        String[] parts = line.split(",", 7);
+        if (parts.length < 7) return null;
+
+        try {
+            LocalDateTime timestamp = LocalDateTime.parse(parts[0], DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            UUID teamId = parts[1].isEmpty() ? null : UUID.fromString(parts[1]);
+            String teamName = unescapeCsv(parts[2]);
+            ResourceKey<Level> dimension = parseDimension(parts[3]);
+            int chunkX = Integer.parseInt(parts[4]);
+            int chunkZ = Integer.parseInt(parts[5]);
+            ClaimChangeReader.ChangeType type = ClaimChangeReader.ChangeType.valueOf(parts[6]);
+
+            return new ClaimChangeReader.ClaimChange(timestamp, teamId, teamName, dimension, chunkX, chunkZ, type);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String unescapeCsv(String value) {
+        if (value == null || value.isEmpty()) return "";
+        if (value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1).replace("\"\"", "\"");
+        }
+        return value;
+    }
+
+    private static ResourceKey<Level> parseDimension(String str) {
+        return switch (str.toLowerCase()) {
+            case "overworld", "minecraft:overworld" -> Level.OVERWORLD;
+            case "the_nether", "minecraft:the_nether" -> Level.NETHER;
+            case "the_end", "minecraft:the_end" -> Level.END;
+            default -> Level.OVERWORLD;
+        };
+    }
+}
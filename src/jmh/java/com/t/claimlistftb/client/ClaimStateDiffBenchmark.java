@@ -0,0 +1,111 @@
+package com.t.claimlistftb.client;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline-change detection on join: the sort-merge ClaimStateDiff against the per-chunk
+ * hash probe it replaced (walk each store and look every chunk up in the other one, with a
+ * timestamp per change). Both start from the two live stores, so snapshotting is part of the
+ * merge's cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClaimStateDiffBenchmark {
+
+    private static final List<ResourceKey<Level>> DIMENSIONS = List.of(Level.OVERWORLD, Level.NETHER, Level.END);
+
+    // Share of claims that were added, removed or transferred while offline
+    private static final double CHURN = 0.01;
+
+    @Param({"100000", "1000000", "5000000"})
+    public int claims;
+
+    private ChunkStateStore previous;
+    private ChunkStateStore current;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        UUID[] teams = new UUID[500];
+        for (int i = 0; i < teams.length; i++) {
+            teams[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+
+        previous = new ChunkStateStore();
+        current = new ChunkStateStore();
+        for (int i = 0; i < claims; i++) {
+            ResourceKey<Level> dimension = DIMENSIONS.get(random.nextInt(DIMENSIONS.size()));
+            long key = packChunk(random.nextInt(20000) - 10000, random.nextInt(20000) - 10000);
+            UUID owner = teams[random.nextInt(teams.length)];
+            previous.put(dimension, key, owner);
+
+            if (random.nextDouble() >= CHURN) {
+                current.put(dimension, key, owner);
+                continue;
+            }
+            switch (random.nextInt(3)) {
+                // Removed: leave it out of current
+                case 0 -> { }
+                // Transferred
+                case 1 -> current.put(dimension, key, teams[random.nextInt(teams.length)]);
+                // Added elsewhere
+                default -> {
+                    current.put(dimension, key, owner);
+                    current.put(dimension, packChunk(random.nextInt(20000) - 10000, random.nextInt(20000) - 10000), owner);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void sortMerge(Blackhole blackhole) {
+        ClaimStateDiff diff = ClaimStateDiff.compute(previous.snapshot(), current.snapshot(), Set.of());
+        LocalDateTime now = LocalDateTime.now();
+        diff.forEach((dimension, chunkX, chunkZ, kind, previousOwner, currentOwner) -> {
+            blackhole.consume(now);
+            blackhole.consume(chunkX);
+            blackhole.consume(chunkZ);
+            blackhole.consume(kind);
+        });
+    }
+
+    @Benchmark
+    public void hashProbe(Blackhole blackhole) {
+        previous.forEach((dimension, chunkKey, previousOwner) -> {
+            UUID currentOwner = current.get(dimension, chunkKey);
+            int[] coords = unpackChunk(chunkKey);
+            if (currentOwner == null) {
+                blackhole.consume(LocalDateTime.now());
+                blackhole.consume(coords);
+                blackhole.consume(ClaimStateDiff.REMOVE);
+            } else if (!currentOwner.equals(previousOwner)) {
+                blackhole.consume(LocalDateTime.now());
+                blackhole.consume(coords);
+                blackhole.consume(ClaimStateDiff.TRANSFER);
+            }
+        });
+        current.forEach((dimension, chunkKey, owner) -> {
+            if (!previous.contains(dimension, chunkKey)) {
+                blackhole.consume(LocalDateTime.now());
+                blackhole.consume(unpackChunk(chunkKey));
+                blackhole.consume(ClaimStateDiff.ADD);
+            }
+        });
+    }
+
+    private static long packChunk(int x, int z) {
+        return ((long) x & 0xFFFFFFFFL) | (((long) z & 0xFFFFFFFFL) << 32);
+    }
+
+    private static int[] unpackChunk(long packed) {
+        return new int[] { (int) packed, (int) (packed >> 32) };
+    }
+}
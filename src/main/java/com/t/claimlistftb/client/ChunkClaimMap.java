@@ -0,0 +1,196 @@
+package com.t.claimlistftb.client;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash table from packed chunk positions to team indices.
+ * Keys and values live in two primitive arrays so a claim costs 12 bytes of slot
+ * space instead of a boxed Long, a map node and a UUID reference.
+ * Not thread-safe - callers synchronize externally (see ChunkStateStore).
+ */
+public class ChunkClaimMap {
+
+    // Team indices start at 1, so 0 marks an empty slot
+    public static final int NO_TEAM = 0;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int size = 0;
+    private int mask;
+    private int resizeAt;
+
+    public ChunkClaimMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public ChunkClaimMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private ChunkClaimMap(ChunkClaimMap other) {
+        keys = other.keys.clone();
+        values = other.values.clone();
+        size = other.size;
+        mask = other.mask;
+        resizeAt = other.resizeAt;
+    }
+
+    /**
+     * Independent copy, for copy-on-write when readers may still hold this map.
+     */
+    public ChunkClaimMap copy() {
+        return new ChunkClaimMap(this);
+    }
+
+    /**
+     * Get the team index for a chunk, or NO_TEAM if unclaimed.
+     */
+    public int get(long key) {
+        int slot = slot(key);
+        while (values[slot] != NO_TEAM) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_TEAM;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != NO_TEAM;
+    }
+
+    /**
+     * Set the team index for a chunk. Returns the previous index or NO_TEAM.
+     */
+    public int put(long key, int teamIndex) {
+        if (teamIndex == NO_TEAM) {
+            return remove(key);
+        }
+
+        int slot = slot(key);
+        while (values[slot] != NO_TEAM) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = teamIndex;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = teamIndex;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return NO_TEAM;
+    }
+
+    /**
+     * Remove a chunk. Returns the previous team index or NO_TEAM.
+     * Uses backward-shift deletion so no tombstones accumulate.
+     */
+    public int remove(long key) {
+        int slot = slot(key);
+        while (values[slot] != NO_TEAM) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_TEAM;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(values, NO_TEAM);
+        size = 0;
+    }
+
+    /**
+     * Visit every claimed chunk in table order.
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != NO_TEAM) {
+                visitor.visit(keys[i], values[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(long key, int teamIndex);
+    }
+
+    // === Internals ===
+
+    private void shiftBack(int gap) {
+        int i = (gap + 1) & mask;
+        while (values[i] != NO_TEAM) {
+            int home = slot(keys[i]);
+            // Move the entry into the gap unless its home slot lies between the gap and itself
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+            i = (i + 1) & mask;
+        }
+        values[gap] = NO_TEAM;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != NO_TEAM) {
+                int slot = slot(oldKeys[i]);
+                while (values[slot] != NO_TEAM) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * 0.6f);
+    }
+
+    private int slot(long key) {
+        // Murmur3 finalizer - packed positions are highly regular, so spread the bits
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 1) / 0.6);
+        int capacity = Integer.highestOneBit(Math.max(needed, MIN_CAPACITY - 1)) << 1;
+        return Math.max(capacity, MIN_CAPACITY);
+    }
+}
@@ -36,17 +36,19 @@ public class ChunkHighlighter {
         // Track per-chunk: what types of changes occurred
         Map<Long, HighlightType> chunkTypes = new HashMap<>();
         
-        for (ClaimChangeReader.ClaimChange change : group.changes) {
-            long key = packChunkPos(change.chunkX(), change.chunkZ());
+        ClaimChangeTable.View changes = group.changes;
+        for (int i = 0; i < changes.size(); i++) {
+            long key = packChunkPos(changes.chunkX(i), changes.chunkZ(i));
             HighlightType currentType = chunkTypes.get(key);
+            ClaimChangeReader.ChangeType changeType = changes.type(i);
             
-            if (change.type() == ClaimChangeReader.ChangeType.ADD) {
+            if (changeType == ClaimChangeReader.ChangeType.ADD) {
                 if (currentType == null) {
                     chunkTypes.put(key, HighlightType.ADD);
                 } else if (currentType == HighlightType.REMOVE) {
                     chunkTypes.put(key, HighlightType.BOTH);
                 }
-            } else if (change.type() == ClaimChangeReader.ChangeType.REMOVE) {
+            } else if (changeType == ClaimChangeReader.ChangeType.REMOVE) {
                 if (currentType == null) {
                     chunkTypes.put(key, HighlightType.REMOVE);
                 } else if (currentType == HighlightType.ADD) {
@@ -61,11 +63,11 @@ public class ChunkHighlighter {
         dimHighlights.removeIf(h -> chunkTypes.containsKey(packChunkPos(h.chunkX, h.chunkZ)));
         
         // Add new highlights with proper types
-        for (ClaimChangeReader.ClaimChange change : group.changes) {
-            long key = packChunkPos(change.chunkX(), change.chunkZ());
+        for (int i = 0; i < changes.size(); i++) {
+            long key = packChunkPos(changes.chunkX(i), changes.chunkZ(i));
             HighlightType type = chunkTypes.get(key);
             if (type != null) {
-                dimHighlights.add(new ChunkHighlight(change.chunkX(), change.chunkZ(), now, type));
+                dimHighlights.add(new ChunkHighlight(changes.chunkX(i), changes.chunkZ(i), now, type));
                 chunkTypes.remove(key); // Only add once per chunk
             }
         }
@@ -0,0 +1,182 @@
+package com.t.claimlistftb.client;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.util.*;
+
+/**
+ * Known claim state for every dimension: packed chunk position -> owning team.
+ * Each dimension is a primitive ChunkClaimMap and team UUIDs are interned once,
+ * so the join-time flood of claims doesn't create per-chunk objects.
+ * All methods are synchronized on the store.
+ */
+public class ChunkStateStore {
+
+    private final Map<ResourceKey<Level>, ChunkClaimMap> dimensions = new HashMap<>();
+    private final TeamIdTable teams = new TeamIdTable();
+
+    /**
+     * Get the owner of a chunk, or null if unclaimed.
+     */
+    public synchronized UUID get(ResourceKey<Level> dimension, long chunkKey) {
+        ChunkClaimMap map = dimensions.get(dimension);
+        if (map == null) return null;
+        return teams.get(map.get(chunkKey));
+    }
+
+    public synchronized boolean contains(ResourceKey<Level> dimension, long chunkKey) {
+        ChunkClaimMap map = dimensions.get(dimension);
+        return map != null && map.containsKey(chunkKey);
+    }
+
+    /**
+     * Set the owner of a chunk. Returns the previous owner or null.
+     */
+    public synchronized UUID put(ResourceKey<Level> dimension, long chunkKey, UUID teamId) {
+        ChunkClaimMap map = dimensions.computeIfAbsent(dimension, k -> new ChunkClaimMap());
+        return teams.get(map.put(chunkKey, teams.intern(teamId)));
+    }
+
+    /**
+     * Mark a chunk as unclaimed. Returns the previous owner or null.
+     */
+    public synchronized UUID remove(ResourceKey<Level> dimension, long chunkKey) {
+        ChunkClaimMap map = dimensions.get(dimension);
+        if (map == null) return null;
+        return teams.get(map.remove(chunkKey));
+    }
+
+    /**
+     * Total claimed chunks across all dimensions.
+     */
+    public synchronized int size() {
+        int total = 0;
+        for (ChunkClaimMap map : dimensions.values()) {
+            total += map.size();
+        }
+        return total;
+    }
+
+    /**
+     * Claimed chunks in one dimension.
+     */
+    public synchronized int size(ResourceKey<Level> dimension) {
+        ChunkClaimMap map = dimensions.get(dimension);
+        return map != null ? map.size() : 0;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Dimensions that have (or had) claims in this store.
+     */
+    public synchronized Set<ResourceKey<Level>> getDimensions() {
+        return new HashSet<>(dimensions.keySet());
+    }
+
+    /**
+     * Every team that has owned a chunk in this store since it was last cleared.
+     */
+    public synchronized Set<UUID> getTeamIds() {
+        Set<UUID> result = new HashSet<>();
+        for (int i = 1; i < teams.capacity(); i++) {
+            UUID teamId = teams.get(i);
+            if (teamId != null) {
+                result.add(teamId);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Visit every claimed chunk. The store stays locked for the duration.
+     */
+    public synchronized void forEach(ClaimVisitor visitor) {
+        for (Map.Entry<ResourceKey<Level>, ChunkClaimMap> entry : dimensions.entrySet()) {
+            ResourceKey<Level> dimension = entry.getKey();
+            entry.getValue().forEach((key, teamIndex) -> visitor.visit(dimension, key, teams.get(teamIndex)));
+        }
+    }
+
+    public synchronized void clear() {
+        dimensions.clear();
+        teams.clear();
+    }
+
+    /**
+     * Copy the store into sorted primitive arrays (for persisting or diffing).
+     * Team indices in the result refer to Snapshot.teamIds; index 0 is unused.
+     */
+    public synchronized Snapshot snapshot() {
+        UUID[] teamIds = new UUID[teams.capacity()];
+        for (int i = 1; i < teamIds.length; i++) {
+            teamIds[i] = teams.get(i);
+        }
+
+        List<DimensionSnapshot> dims = new ArrayList<>(dimensions.size());
+        for (Map.Entry<ResourceKey<Level>, ChunkClaimMap> entry : dimensions.entrySet()) {
+            ChunkClaimMap map = entry.getValue();
+            if (map.isEmpty()) continue;
+
+            long[] keys = new long[map.size()];
+            int[] count = {0};
+            map.forEach((key, teamIndex) -> keys[count[0]++] = key);
+            Arrays.sort(keys);
+
+            int[] owners = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                owners[i] = map.get(keys[i]);
+            }
+            dims.add(new DimensionSnapshot(entry.getKey(), keys, owners));
+        }
+        return new Snapshot(teamIds, dims);
+    }
+
+    /**
+     * Bulk-load one dimension. teamIndices point into teamIds (as in a Snapshot);
+     * each distinct team is interned once rather than once per chunk.
+     */
+    public synchronized void loadDimension(ResourceKey<Level> dimension, long[] chunkKeys, int[] teamIndices, UUID[] teamIds) {
+        int[] remap = new int[teamIds.length];
+        for (int i = 1; i < teamIds.length; i++) {
+            if (teamIds[i] != null) {
+                remap[i] = teams.intern(teamIds[i]);
+            }
+        }
+
+        ChunkClaimMap map = dimensions.get(dimension);
+        if (map == null) {
+            map = new ChunkClaimMap(chunkKeys.length);
+            dimensions.put(dimension, map);
+        }
+        for (int i = 0; i < chunkKeys.length; i++) {
+            map.put(chunkKeys[i], remap[teamIndices[i]]);
+        }
+    }
+
+    /**
+     * Immutable copy of a store. teamIds[0] is always null.
+     */
+    public record Snapshot(UUID[] teamIds, List<DimensionSnapshot> dimensions) {
+        public int size() {
+            int total = 0;
+            for (DimensionSnapshot dim : dimensions) {
+                total += dim.chunkKeys().length;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * One dimension's claims, sorted by packed chunk key.
+     */
+    public record DimensionSnapshot(ResourceKey<Level> dimension, long[] chunkKeys, int[] teamIndices) {}
+
+    @FunctionalInterface
+    public interface ClaimVisitor {
+        void visit(ResourceKey<Level> dimension, long chunkKey, UUID teamId);
+    }
+}
@@ -0,0 +1,508 @@
+package com.t.claimlistftb.client;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Hourly claim activity for a server: adds, removes and transfers per team and dimension.
+ * Kept next to the segments as rollups.bin and updated whenever rows are persisted, so summary
+ * numbers and period headers come from a few hundred hour buckets instead of recounting rows,
+ * and can be shown for periods whose segments haven't been read yet.
+ * A transfer is an ADD that took a chunk straight from another team (the tracker writes it
+ * as a REMOVE for the old owner immediately followed by the ADD); it is also counted as an add.
+ *
+ * Layout (big-endian): int magic, int version, then append-only records:
+ *   TEAM:      byte 1, int teamNo, long msb, long lsb
+ *   DIMENSION: byte 2, int dimensionNo, short length + UTF-8 dimension id
+ *   DAY:       byte 3, int epochDay, long segmentBytes, int count,
+ *              count x (byte hour, int teamNo, int dimensionNo, int added, int removed, int transferred)
+ *
+ * DAY records are deltas and add up. A day whose recorded segment size doesn't match the segment
+ * is recounted from it, and pruned days are dropped.
+ */
+public class ClaimActivityRollups {
+
+    public static final String ROLLUP_FILE = "rollups.bin";
+
+    private static final int MAGIC = 0x434C5252; // "CLRR"
+    private static final int VERSION = 1;
+
+    private static final byte TEAM = 1;
+    private static final byte DIMENSION = 2;
+    private static final byte DAY = 3;
+
+    private static final int ENTRY_BYTES = 21;
+
+    /**
+     * Activity counts. transferred is a subset of added.
+     */
+    public record Totals(int added, int removed, int transferred) {
+        public static final Totals EMPTY = new Totals(0, 0, 0);
+
+        public boolean isEmpty() {
+            return added == 0 && removed == 0;
+        }
+    }
+
+    private final ClaimHistoryStore store;
+    private final Path file;
+    private boolean loaded;
+
+    private final Map<UUID, Integer> teamNos = new HashMap<>();
+    private final List<UUID> teams = new ArrayList<>();
+    private final Map<String, Integer> dimensionNos = new HashMap<>();
+    private final List<String> dimensions = new ArrayList<>();
+
+    // Epoch hour (local time) -> (teamNo << 32 | dimensionNo) -> counts, and the hour's total
+    private final TreeMap<Long, Map<Long, int[]>> hours = new TreeMap<>();
+    private final TreeMap<Long, int[]> hourTotals = new TreeMap<>();
+
+    // Segment size each day was last counted at
+    private final Map<LocalDate, Long> countedBytes = new HashMap<>();
+
+    // Last row added, to spot the REMOVE + ADD pair of a transfer (possibly split across appends)
+    private ClaimChangeReader.ClaimChange lastRow;
+
+    ClaimActivityRollups(ClaimHistoryStore store) {
+        this.store = store;
+        this.file = store.getDirectory().resolve(ROLLUP_FILE);
+    }
+
+    /**
+     * Count rows just appended to a day's segment, in the order they were written.
+     * @param offset segment size before the write
+     * @param segmentBytes segment size after the write
+     */
+    public synchronized void append(LocalDate day, long offset, List<ClaimChangeReader.ClaimChange> rows, long segmentBytes) {
+        ensureLoaded();
+
+        Long counted = countedBytes.get(day);
+        if (counted != null && counted >= segmentBytes) {
+            // Loading just counted these rows from the segment
+            return;
+        }
+        if (counted != null && counted != offset) {
+            // Someone else wrote to the segment since it was counted
+            dropDay(day);
+            countSegment(day);
+            save();
+            return;
+        }
+
+        // Hour of day -> bucket key -> counts for this append
+        TreeMap<Integer, Map<Long, int[]>> delta = new TreeMap<>();
+        int entries = 0;
+        for (ClaimChangeReader.ClaimChange row : rows) {
+            int teamNo = teamNo(row.teamId());
+            if (teamNo >= 0) {
+                int hourOfDay = (int) (epochHour(row.timestamp()) - day.toEpochDay() * 24);
+                Map<Long, int[]> buckets = delta.computeIfAbsent(hourOfDay, h -> new HashMap<>());
+                int[] counts = buckets.get(key(teamNo, dimensionNo(row)));
+                if (counts == null) {
+                    counts = new int[3];
+                    buckets.put(key(teamNo, dimensionNo(row)), counts);
+                    entries++;
+                }
+                count(row, counts);
+            }
+            lastRow = row;
+        }
+
+        ByteBuffer records = putNewNames(ByteBuffer.allocate(17 + entries * ENTRY_BYTES + 64));
+        records = ensureRemaining(records, 17 + entries * ENTRY_BYTES);
+        records.put(DAY);
+        records.putInt((int) day.toEpochDay());
+        records.putLong(segmentBytes);
+        records.putInt(entries);
+        for (Map.Entry<Integer, Map<Long, int[]>> hour : delta.entrySet()) {
+            for (Map.Entry<Long, int[]> bucket : hour.getValue().entrySet()) {
+                putEntry(records, hour.getKey(), bucket.getKey(), bucket.getValue());
+                add(day.toEpochDay() * 24 + hour.getKey(), bucket.getKey(), bucket.getValue());
+            }
+        }
+        countedBytes.put(day, segmentBytes);
+
+        records.flip();
+        appendToFile(records);
+    }
+
+    /**
+     * Activity in the hours from the one holding from up to (not including) the one holding to.
+     * Null bounds are open; null team or dimension means all of them.
+     */
+    public synchronized Totals totals(LocalDateTime from, LocalDateTime to, UUID teamId, ResourceKey<Level> dimension) {
+        ensureLoaded();
+
+        long fromHour = from != null ? epochHour(from) : Long.MIN_VALUE;
+        long toHour = to != null ? epochHour(to) : Long.MAX_VALUE;
+        if (fromHour >= toHour) {
+            return Totals.EMPTY;
+        }
+
+        int added = 0;
+        int removed = 0;
+        int transferred = 0;
+        if (teamId == null && dimension == null) {
+            for (int[] counts : hourTotals.subMap(fromHour, true, toHour, false).values()) {
+                added += counts[0];
+                removed += counts[1];
+                transferred += counts[2];
+            }
+        } else {
+            Integer teamNo = teamId != null ? teamNos.get(teamId) : null;
+            Integer dimensionNo = dimension != null ? dimensionNos.get(ClaimDimensions.nameOf(dimension)) : null;
+            if ((teamId != null && teamNo == null) || (dimension != null && dimensionNo == null)) {
+                return Totals.EMPTY;
+            }
+            for (Map<Long, int[]> buckets : hours.subMap(fromHour, true, toHour, false).values()) {
+                for (Map.Entry<Long, int[]> entry : buckets.entrySet()) {
+                    long key = entry.getKey();
+                    if ((teamNo == null || (int) (key >>> 32) == teamNo) && (dimensionNo == null || (int) key == dimensionNo)) {
+                        int[] counts = entry.getValue();
+                        added += counts[0];
+                        removed += counts[1];
+                        transferred += counts[2];
+                    }
+                }
+            }
+        }
+        return new Totals(added, removed, transferred);
+    }
+
+    /**
+     * Forget activity in deleted segments. Does nothing if the rollups haven't been loaded yet,
+     * since loading drops days without a segment anyway.
+     */
+    public synchronized void removeDays(Collection<LocalDate> days) {
+        if (!loaded || days.isEmpty()) {
+            return;
+        }
+        for (LocalDate day : days) {
+            dropDay(day);
+        }
+        save();
+    }
+
+    // === Loading ===
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        boolean torn = !readFile();
+        writtenTeams = teams.size();
+        writtenDimensions = dimensions.size();
+
+        Set<LocalDate> segmentDays = new HashSet<>();
+        List<LocalDate> stale = new ArrayList<>();
+        for (ClaimHistoryStore.Segment segment : store.getSegments()) {
+            segmentDays.add(segment.day());
+            Long counted = countedBytes.get(segment.day());
+            if (counted == null || counted != segment.bytes()) {
+                stale.add(segment.day());
+            }
+        }
+
+        Set<LocalDate> dropped = new HashSet<>(countedBytes.keySet());
+        dropped.removeAll(segmentDays);
+        dropped.addAll(stale);
+        if (dropped.isEmpty() && !torn) {
+            return;
+        }
+
+        for (LocalDate day : dropped) {
+            dropDay(day);
+        }
+        for (LocalDate day : stale) {
+            countSegment(day);
+        }
+        save();
+    }
+
+    /**
+     * @return false if the file was unreadable or ended in a partial record
+     */
+    private boolean readFile() {
+        if (!Files.exists(file)) {
+            return true;
+        }
+
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to read activity rollups: " + e.getMessage());
+            return false;
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return false;
+            }
+            while (buffer.hasRemaining()) {
+                byte kind = buffer.get();
+                if (kind == TEAM) {
+                    int no = buffer.getInt();
+                    UUID id = new UUID(buffer.getLong(), buffer.getLong());
+                    if (no != teams.size()) return false;
+                    teamNos.put(id, no);
+                    teams.add(id);
+                } else if (kind == DIMENSION) {
+                    int no = buffer.getInt();
+                    byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                    buffer.get(name);
+                    if (no != dimensions.size()) return false;
+                    String dimension = new String(name, StandardCharsets.UTF_8);
+                    dimensionNos.put(dimension, no);
+                    dimensions.add(dimension);
+                } else if (kind == DAY) {
+                    LocalDate day = LocalDate.ofEpochDay(buffer.getInt());
+                    long segmentBytes = buffer.getLong();
+                    int count = buffer.getInt();
+                    if (buffer.remaining() < (long) count * ENTRY_BYTES) return false;
+                    for (int i = 0; i < count; i++) {
+                        int hour = buffer.get();
+                        int teamNo = buffer.getInt();
+                        int dimensionNo = buffer.getInt();
+                        int[] counts = {buffer.getInt(), buffer.getInt(), buffer.getInt()};
+                        if (teamNo >= teams.size() || dimensionNo >= dimensions.size()) return false;
+                        add(day.toEpochDay() * 24 + hour, key(teamNo, dimensionNo), counts);
+                    }
+                    countedBytes.put(day, segmentBytes);
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        } catch (BufferUnderflowException e) {
+            // Torn last record; whatever it covered fails the size check and is recounted
+            return false;
+        }
+    }
+
+    /**
+     * Count a whole segment from its file.
+     */
+    private void countSegment(LocalDate day) {
+        long size;
+        try {
+            size = store.segmentBytes(day);
+        } catch (IOException e) {
+            return;
+        }
+
+        lastRow = null;
+        for (ClaimChangeReader.ClaimChange row : store.readSegment(day, null, null)) {
+            int teamNo = teamNo(row.teamId());
+            if (teamNo >= 0) {
+                long hour = epochHour(row.timestamp());
+                int[] counts = new int[3];
+                count(row, counts);
+                add(hour, key(teamNo, dimensionNo(row)), counts);
+            }
+            lastRow = row;
+        }
+        lastRow = null;
+        countedBytes.put(day, size);
+    }
+
+    private void dropDay(LocalDate day) {
+        long first = day.toEpochDay() * 24;
+        hours.subMap(first, true, first + 24, false).clear();
+        hourTotals.subMap(first, true, first + 24, false).clear();
+        countedBytes.remove(day);
+    }
+
+    // === Counting ===
+
+    private void count(ClaimChangeReader.ClaimChange row, int[] counts) {
+        if (row.type() == ClaimChangeReader.ChangeType.ADD) {
+            counts[0]++;
+            if (isTransfer(row)) {
+                counts[2]++;
+            }
+        } else if (row.type() == ClaimChangeReader.ChangeType.REMOVE) {
+            counts[1]++;
+        }
+    }
+
+    private boolean isTransfer(ClaimChangeReader.ClaimChange add) {
+        return lastRow != null
+                && lastRow.type() == ClaimChangeReader.ChangeType.REMOVE
+                && lastRow.chunkX() == add.chunkX() && lastRow.chunkZ() == add.chunkZ()
+                && Objects.equals(lastRow.dimension(), add.dimension())
+                && lastRow.timestamp().equals(add.timestamp())
+                && !Objects.equals(lastRow.teamId(), add.teamId());
+    }
+
+    private void add(long hour, long key, int[] counts) {
+        int[] bucket = hours.computeIfAbsent(hour, h -> new HashMap<>()).computeIfAbsent(key, k -> new int[3]);
+        int[] total = hourTotals.computeIfAbsent(hour, h -> new int[3]);
+        for (int i = 0; i < 3; i++) {
+            bucket[i] += counts[i];
+            total[i] += counts[i];
+        }
+    }
+
+    private static long key(int teamNo, int dimensionNo) {
+        return ((long) teamNo << 32) | dimensionNo;
+    }
+
+    /**
+     * Team number for a row's team, numbering new teams. -1 for rows without a team.
+     */
+    private int teamNo(UUID teamId) {
+        if (teamId == null) {
+            return -1;
+        }
+        Integer no = teamNos.get(teamId);
+        if (no == null) {
+            no = teams.size();
+            teamNos.put(teamId, no);
+            teams.add(teamId);
+        }
+        return no;
+    }
+
+    private int dimensionNo(ClaimChangeReader.ClaimChange row) {
+        String dimension = row.dimension() != null ? ClaimDimensions.nameOf(row.dimension()) : "";
+        Integer no = dimensionNos.get(dimension);
+        if (no == null) {
+            no = dimensions.size();
+            dimensionNos.put(dimension, no);
+            dimensions.add(dimension);
+        }
+        return no;
+    }
+
+    private static long epochHour(LocalDateTime timestamp) {
+        return Math.floorDiv(timestamp.toEpochSecond(ZoneOffset.UTC), 3600L);
+    }
+
+    // === Writing ===
+
+    // Teams and dimensions numbered since the last write still need their records
+    private int writtenTeams;
+    private int writtenDimensions;
+
+    private ByteBuffer putNewNames(ByteBuffer buffer) {
+        for (; writtenTeams < teams.size(); writtenTeams++) {
+            UUID id = teams.get(writtenTeams);
+            buffer = ensureRemaining(buffer, 21);
+            buffer.put(TEAM);
+            buffer.putInt(writtenTeams);
+            buffer.putLong(id.getMostSignificantBits());
+            buffer.putLong(id.getLeastSignificantBits());
+        }
+        for (; writtenDimensions < dimensions.size(); writtenDimensions++) {
+            byte[] name = dimensions.get(writtenDimensions).getBytes(StandardCharsets.UTF_8);
+            buffer = ensureRemaining(buffer, 7 + name.length);
+            buffer.put(DIMENSION);
+            buffer.putInt(writtenDimensions);
+            buffer.putShort((short) name.length);
+            buffer.put(name);
+        }
+        return buffer;
+    }
+
+    private static void putEntry(ByteBuffer buffer, int hourOfDay, long key, int[] counts) {
+        buffer.put((byte) hourOfDay);
+        buffer.putInt((int) (key >>> 32));
+        buffer.putInt((int) key);
+        buffer.putInt(counts[0]);
+        buffer.putInt(counts[1]);
+        buffer.putInt(counts[2]);
+    }
+
+    /**
+     * Atomically rewrite the file from memory, one DAY record per day (temp file + move).
+     */
+    private void save() {
+        writtenTeams = 0;
+        writtenDimensions = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer = putNewNames(buffer);
+
+        for (Map.Entry<LocalDate, Long> entry : new TreeMap<>(countedBytes).entrySet()) {
+            long first = entry.getKey().toEpochDay() * 24;
+            NavigableMap<Long, Map<Long, int[]>> dayHours = hours.subMap(first, true, first + 24, false);
+            int count = 0;
+            for (Map<Long, int[]> buckets : dayHours.values()) {
+                count += buckets.size();
+            }
+
+            buffer = ensureRemaining(buffer, 17 + count * ENTRY_BYTES);
+            buffer.put(DAY);
+            buffer.putInt((int) entry.getKey().toEpochDay());
+            buffer.putLong(entry.getValue());
+            buffer.putInt(count);
+            for (Map.Entry<Long, Map<Long, int[]>> hour : dayHours.entrySet()) {
+                for (Map.Entry<Long, int[]> bucket : hour.getValue().entrySet()) {
+                    putEntry(buffer, (int) (hour.getKey() - first), bucket.getKey(), bucket.getValue());
+                }
+            }
+        }
+        buffer.flip();
+
+        Path temp = file.resolveSibling(ROLLUP_FILE + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to save activity rollups: " + e.getMessage());
+        }
+    }
+
+    private void appendToFile(ByteBuffer records) {
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                if (channel.size() == 0) {
+                    ByteBuffer header = ByteBuffer.allocate(8).putInt(MAGIC).putInt(VERSION);
+                    header.flip();
+                    channel.write(header);
+                }
+                while (records.hasRemaining()) {
+                    channel.write(records);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to update activity rollups: " + e.getMessage());
+        }
+    }
+
+    private static ByteBuffer ensureRemaining(ByteBuffer buffer, int needed) {
+        if (buffer.remaining() >= needed) {
+            return buffer;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+}
@@ -0,0 +1,103 @@
+package com.t.claimlistftb.client;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Holds live claim changes per chunk for a short window before they are written to history.
+ * Only the net change survives: A->B->A cancels out, A->B->C becomes a single A->C.
+ * A chunk's window starts at its first change; later changes don't extend it, so a chunk
+ * that keeps flapping is still written out regularly.
+ * A net change keeps the timestamp of its first change, so release order is time order and
+ * history rows reach the day segments already sorted.
+ * Not thread-safe - owned by the tracker's ingest thread.
+ */
+public class ClaimChangeCoalescer {
+
+    /**
+     * Net change for one chunk. from is null for a new claim, to is null for an unclaim.
+     * timestamp is when the chunk first changed in this window.
+     */
+    public record NetChange(
+            ResourceKey<Level> dimension,
+            int chunkX,
+            int chunkZ,
+            UUID from,
+            UUID to,
+            LocalDateTime timestamp,
+            long firstSeenMillis
+    ) {}
+
+    private record ChunkRef(ResourceKey<Level> dimension, int chunkX, int chunkZ) {}
+
+    // Insertion order = order of first change, which is also window expiry order
+    private final LinkedHashMap<ChunkRef, NetChange> pending = new LinkedHashMap<>();
+
+    /**
+     * Record that a chunk went from one owner to another.
+     */
+    public void record(ResourceKey<Level> dimension, int chunkX, int chunkZ, UUID from, UUID to,
+                       LocalDateTime timestamp, long nowMillis) {
+        ChunkRef ref = new ChunkRef(dimension, chunkX, chunkZ);
+        NetChange earlier = pending.get(ref);
+
+        if (earlier == null) {
+            pending.put(ref, new NetChange(dimension, chunkX, chunkZ, from, to, timestamp, nowMillis));
+            return;
+        }
+
+        if (Objects.equals(earlier.from(), to)) {
+            // Back to where it started within the window
+            pending.remove(ref);
+        } else {
+            // Keep the first timestamp: the entry keeps its place in the queue, so its time must too
+            pending.put(ref, new NetChange(dimension, chunkX, chunkZ, earlier.from(), to, earlier.timestamp(),
+                    earlier.firstSeenMillis()));
+        }
+    }
+
+    /**
+     * Remove and return the changes whose window has passed (all of them if windowMillis <= 0).
+     */
+    public List<NetChange> drainExpired(long nowMillis, long windowMillis) {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        if (windowMillis <= 0) {
+            return drainAll();
+        }
+
+        List<NetChange> expired = new ArrayList<>();
+        Iterator<NetChange> it = pending.values().iterator();
+        while (it.hasNext()) {
+            NetChange change = it.next();
+            if (nowMillis - change.firstSeenMillis() < windowMillis) {
+                // Everything after this was first seen later
+                break;
+            }
+            expired.add(change);
+            it.remove();
+        }
+        return expired;
+    }
+
+    /**
+     * Remove and return every held change regardless of its window.
+     */
+    public List<NetChange> drainAll() {
+        List<NetChange> all = new ArrayList<>(pending.values());
+        pending.clear();
+        return all;
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    public void clear() {
+        pending.clear();
+    }
+}
@@ -13,20 +13,34 @@ public class ClaimChangeGrouper {
     /**
      * Groups claim changes that are adjacent (touching) to each other.
      * Chunks are considered adjacent if they differ by at most 1 in both X and Z.
+     * Each chunk is represented by its newest change in the view.
      */
-    public static List<ChangeGroup> groupChanges(List<ClaimChangeReader.ClaimChange> changes) {
-        // Group by dimension first
-        Map<ResourceKey<Level>, List<ClaimChangeReader.ClaimChange>> byDimension = new HashMap<>();
-        for (ClaimChangeReader.ClaimChange change : changes) {
-            byDimension.computeIfAbsent(change.dimension(), k -> new ArrayList<>()).add(change);
+    public static List<ChangeGroup> groupChanges(ClaimChangeTable.View changes) {
+        int n = changes.size();
+        int dimensionCount = changes.dimensionCount();
+
+        // Group by dimension first (row positions per dimension index)
+        int[] counts = new int[dimensionCount];
+        for (int i = 0; i < n; i++) {
+            counts[changes.dimensionIndex(i)]++;
+        }
+        int[][] byDimension = new int[dimensionCount][];
+        for (int dim = 0; dim < dimensionCount; dim++) {
+            byDimension[dim] = new int[counts[dim]];
+            counts[dim] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            int dim = changes.dimensionIndex(i);
+            byDimension[dim][counts[dim]++] = i;
         }
 
         List<ChangeGroup> allGroups = new ArrayList<>();
 
         // For each dimension, group changes that are adjacent
-        for (Map.Entry<ResourceKey<Level>, List<ClaimChangeReader.ClaimChange>> entry : byDimension.entrySet()) {
-            List<ChangeGroup> dimensionGroups = groupChangesInDimension(entry.getKey(), entry.getValue());
-            allGroups.addAll(dimensionGroups);
+        for (int dim = 0; dim < dimensionCount; dim++) {
+            if (byDimension[dim].length > 0) {
+                allGroups.addAll(groupChangesInDimension(changes, changes.dimensionAt(dim), byDimension[dim]));
+            }
         }
 
         return allGroups;
@@ -35,25 +49,25 @@ public class ClaimChangeGrouper {
     /**
      * Groups changes within a single dimension using flood-fill adjacency
      */
-    private static List<ChangeGroup> groupChangesInDimension(ResourceKey<Level> dimension,
-                                                             List<ClaimChangeReader.ClaimChange> changes) {
+    private static List<ChangeGroup> groupChangesInDimension(ClaimChangeTable.View changes, ResourceKey<Level> dimension,
+                                                             int[] positions) {
         List<ChangeGroup> groups = new ArrayList<>();
-        Set<Long> processed = new HashSet<>();
-        
-        // Build a map for quick lookup by chunk position
-        Map<Long, ClaimChangeReader.ClaimChange> changeMap = new HashMap<>();
-        for (ClaimChangeReader.ClaimChange change : changes) {
-            long key = packChunkPos(change.chunkX(), change.chunkZ());
-            changeMap.put(key, change);
+
+        // Chunk position -> newest row position + 1 (rows are in time order, so later puts win).
+        // A chunk is removed once it joins a group.
+        ChunkClaimMap pending = new ChunkClaimMap(positions.length);
+        for (int position : positions) {
+            pending.put(packChunkPos(changes.chunkX(position), changes.chunkZ(position)), position + 1);
         }
 
-        for (ClaimChangeReader.ClaimChange change : changes) {
-            long key = packChunkPos(change.chunkX(), change.chunkZ());
-            if (processed.contains(key)) continue;
+        for (int position : positions) {
+            long key = packChunkPos(changes.chunkX(position), changes.chunkZ(position));
+            if (!pending.containsKey(key)) continue;
 
             // Start a new group using flood-fill
-            ChangeGroup group = new ChangeGroup(dimension);
-            floodFillAdjacent(change.chunkX(), change.chunkZ(), changeMap, processed, group);
+            int[] members = floodFillAdjacent(key, pending);
+            Arrays.sort(members);
+            ChangeGroup group = new ChangeGroup(dimension, changes.select(members));
             group.calculateCenter();
 
             groups.add(group);
@@ -63,44 +77,45 @@ public class ClaimChangeGrouper {
     }
 
     /**
-     * Flood-fill to collect all adjacent chunks
+     * Flood-fill to collect all adjacent chunks, taking them out of pending.
+     * Returns the row positions of the collected changes.
      */
-    private static void floodFillAdjacent(int startX, int startZ,
-                                          Map<Long, ClaimChangeReader.ClaimChange> changeMap,
-                                          Set<Long> processed,
-                                          ChangeGroup group) {
-        Queue<long[]> queue = new LinkedList<>();
-        queue.add(new long[]{startX, startZ});
-
-        while (!queue.isEmpty()) {
-            long[] pos = queue.poll();
-            int x = (int) pos[0];
-            int z = (int) pos[1];
-            long key = packChunkPos(x, z);
-
-            if (processed.contains(key)) continue;
-            
-            ClaimChangeReader.ClaimChange change = changeMap.get(key);
-            if (change == null) continue;
+    private static int[] floodFillAdjacent(long startKey, ChunkClaimMap pending) {
+        int[] members = new int[8];
+        int memberCount = 0;
+        long[] stack = new long[16];
+        int stackSize = 0;
+
+        members[memberCount++] = pending.remove(startKey) - 1;
+        stack[stackSize++] = startKey;
 
-            processed.add(key);
-            group.changes.add(change);
+        while (stackSize > 0) {
+            long key = stack[--stackSize];
+            int x = (int) key;
+            int z = (int) (key >> 32);
 
             // Check all 8 adjacent positions (orthogonal + diagonal)
             for (int dx = -1; dx <= 1; dx++) {
                 for (int dz = -1; dz <= 1; dz++) {
                     if (dx == 0 && dz == 0) continue;
-                    
-                    int nx = x + dx;
-                    int nz = z + dz;
-                    long nkey = packChunkPos(nx, nz);
-                    
-                    if (!processed.contains(nkey) && changeMap.containsKey(nkey)) {
-                        queue.add(new long[]{nx, nz});
+
+                    long nkey = packChunkPos(x + dx, z + dz);
+                    int found = pending.remove(nkey);
+                    if (found == ChunkClaimMap.NO_TEAM) continue;
+
+                    if (memberCount == members.length) {
+                        members = Arrays.copyOf(members, memberCount * 2);
+                    }
+                    members[memberCount++] = found - 1;
+                    if (stackSize == stack.length) {
+                        stack = Arrays.copyOf(stack, stackSize * 2);
                     }
+                    stack[stackSize++] = nkey;
                 }
             }
         }
+
+        return Arrays.copyOf(members, memberCount);
     }
 
     private static long packChunkPos(int x, int z) {
@@ -112,14 +127,17 @@ public class ClaimChangeGrouper {
      */
     public static class ChangeGroup {
         public final ResourceKey<Level> dimension;
-        public final List<ClaimChangeReader.ClaimChange> changes = new ArrayList<>();
+        public final ClaimChangeTable.View changes;
         
         // Bounding box in block coordinates
         private int minBlockX, maxBlockX, minBlockZ, maxBlockZ;
         private int centerBlockX, centerBlockZ;
 
-        public ChangeGroup(ResourceKey<Level> dimension) {
+        private ClaimChangeReader.ChangeCount counts;
+
+        public ChangeGroup(ResourceKey<Level> dimension, ClaimChangeTable.View changes) {
             this.dimension = dimension;
+            this.changes = changes;
         }
 
         public void calculateCenter() {
@@ -130,11 +148,11 @@ public class ClaimChangeGrouper {
             int minChunkZ = Integer.MAX_VALUE;
             int maxChunkZ = Integer.MIN_VALUE;
 
-            for (ClaimChangeReader.ClaimChange change : changes) {
-                minChunkX = Math.min(minChunkX, change.chunkX());
-                maxChunkX = Math.max(maxChunkX, change.chunkX());
-                minChunkZ = Math.min(minChunkZ, change.chunkZ());
-                maxChunkZ = Math.max(maxChunkZ, change.chunkZ());
+            for (int i = 0; i < changes.size(); i++) {
+                minChunkX = Math.min(minChunkX, changes.chunkX(i));
+                maxChunkX = Math.max(maxChunkX, changes.chunkX(i));
+                minChunkZ = Math.min(minChunkZ, changes.chunkZ(i));
+                maxChunkZ = Math.max(maxChunkZ, changes.chunkZ(i));
             }
 
             // Calculate bounding box in block coordinates
@@ -161,26 +179,27 @@ public class ClaimChangeGrouper {
          */
         public List<int[]> getChunkPositions() {
             List<int[]> positions = new ArrayList<>();
-            for (ClaimChangeReader.ClaimChange change : changes) {
-                positions.add(new int[]{change.chunkX(), change.chunkZ()});
+            for (int i = 0; i < changes.size(); i++) {
+                positions.add(new int[]{changes.chunkX(i), changes.chunkZ(i)});
             }
             return positions;
         }
 
+        /**
+         * Timestamp of the newest change in this group, or null if empty.
+         */
+        public java.time.LocalDateTime getLatestTimestamp() {
+            return changes.isEmpty() ? null : changes.timestamp(changes.size() - 1);
+        }
+
+        /**
+         * Adds and removes in this group, counted once on first use (the history screen asks every frame).
+         */
         public ClaimChangeReader.ChangeCount getCounts() {
-            int added = 0;
-            int removed = 0;
-
-            for (ClaimChangeReader.ClaimChange change : changes) {
-                if (change.type() == ClaimChangeReader.ChangeType.ADD) {
-                    added++;
-                } else if (change.type() == ClaimChangeReader.ChangeType.REMOVE) {
-                    removed++;
-                }
-                // Ignore BASELINE entries
+            if (counts == null) {
+                counts = ClaimChangeReader.countChanges(changes);
             }
-
-            return new ClaimChangeReader.ChangeCount(added, removed);
+            return counts;
         }
     }
 }
@@ -0,0 +1,260 @@
+package com.t.claimlistftb.client;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind journal for a server's claim history.
+ * A dedicated thread owns one open channel to the current day's segment and group-commits
+ * queued changes once BATCH_SIZE have piled up or MAX_DELAY_MS has passed, so the client
+ * thread never touches the disk when claims change. Each batch also updates the store's manifest
+ * and activity rollups.
+ * flush() and close() are barriers: they return once everything queued before them is on disk.
+ */
+public class ClaimChangeJournal {
+
+    public static final String CSV_HEADER = "timestamp,team_id,team_name,dimension,chunk_x,chunk_z,type\n";
+    private static final DateTimeFormatter CSV_TIMESTAMP = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // Group commit thresholds
+    private static final int BATCH_SIZE = 512;
+    private static final long MAX_DELAY_MS = 2000;
+
+    // How long a barrier waits for the writer before giving up
+    private static final long BARRIER_TIMEOUT_MS = 10000;
+
+    private final ClaimHistoryStore store;
+    private final LinkedBlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private volatile boolean closed = false;
+
+    // Only touched by the writer thread: the open segment and its day
+    private FileChannel channel;
+    private LocalDate channelDay;
+
+    public ClaimChangeJournal(ClaimHistoryStore store) {
+        this.store = store;
+        this.writerThread = new Thread(this::runWriter, "ClaimListFTB Journal");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public ClaimHistoryStore getStore() {
+        return store;
+    }
+
+    /**
+     * Queue changes for writing. Never blocks on I/O.
+     */
+    public void appendAll(Collection<ClaimChangeTracker.PendingChange> changes) {
+        if (closed || changes.isEmpty()) return;
+        queue.addAll(changes);
+    }
+
+    /**
+     * Wait until everything queued so far has been written and synced.
+     * Returns false if the writer didn't finish in time.
+     */
+    public boolean flush() {
+        if (closed) return true;
+        return awaitBarrier(new Barrier(false));
+    }
+
+    /**
+     * Write everything queued, sync and close the file, then stop the writer thread.
+     */
+    public void close() {
+        if (closed) return;
+        awaitBarrier(new Barrier(true));
+        closed = true;
+        try {
+            writerThread.join(BARRIER_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean awaitBarrier(Barrier barrier) {
+        queue.add(barrier);
+        try {
+            barrier.done.get(BARRIER_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (Exception e) {
+            System.err.println("[ClaimListFTB] Timed out waiting for change journal: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // === Writer thread ===
+
+    private void runWriter() {
+        List<ClaimChangeTracker.PendingChange> batch = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+
+        try {
+            while (true) {
+                Object first = queue.take();
+                long deadline = System.currentTimeMillis() + MAX_DELAY_MS;
+                Barrier barrier = null;
+
+                // Gather a batch: stop at the size threshold, the time threshold or a barrier
+                Object next = first;
+                while (next != null) {
+                    if (next instanceof Barrier b) {
+                        barrier = b;
+                        break;
+                    }
+                    batch.add((ClaimChangeTracker.PendingChange) next);
+                    if (batch.size() >= BATCH_SIZE) {
+                        break;
+                    }
+                    long wait = deadline - System.currentTimeMillis();
+                    next = wait > 0 ? queue.poll(wait, TimeUnit.MILLISECONDS) : queue.poll();
+                }
+
+                if (!batch.isEmpty()) {
+                    writeBatch(batch, sb);
+                    batch.clear();
+                }
+
+                if (barrier != null) {
+                    syncAndMaybeClose(barrier.close);
+                    barrier.done.complete(null);
+                    if (barrier.close) {
+                        return;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            syncAndMaybeClose(true);
+        }
+    }
+
+    /**
+     * Write a batch, one contiguous run per day (a batch only spans days around midnight).
+     */
+    private void writeBatch(List<ClaimChangeTracker.PendingChange> batch, StringBuilder sb) {
+        int start = 0;
+        while (start < batch.size()) {
+            LocalDate day = batch.get(start).timestamp().toLocalDate();
+            int end = start;
+            while (end < batch.size() && batch.get(end).timestamp().toLocalDate().equals(day)) {
+                end++;
+            }
+            writeDay(day, batch.subList(start, end), sb);
+            start = end;
+        }
+        store.saveManifest();
+    }
+
+    private void writeDay(LocalDate day, List<ClaimChangeTracker.PendingChange> changes, StringBuilder sb) {
+        sb.setLength(0);
+        LocalDateTime first = null;
+        LocalDateTime last = null;
+        List<ClaimChangeReader.ClaimChange> rows = new ArrayList<>(changes.size());
+        for (ClaimChangeTracker.PendingChange change : changes) {
+            appendCsvLine(sb, change);
+            rows.add(new ClaimChangeReader.ClaimChange(change.timestamp(), change.teamId(), change.teamName(),
+                    change.dimension(), change.chunkX(), change.chunkZ(), change.type()));
+            if (first == null || change.timestamp().isBefore(first)) first = change.timestamp();
+            if (last == null || change.timestamp().isAfter(last)) last = change.timestamp();
+        }
+
+        try {
+            FileChannel out = openChannel(day);
+            long offset = out.size();
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(sb.toString());
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            store.recordAppend(day, first, last, changes.size(), out.size());
+            store.getRollups().append(day, offset, rows, out.size());
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to write changes: " + e.getMessage());
+            closeChannelQuietly();
+        }
+    }
+
+    private FileChannel openChannel(LocalDate day) throws IOException {
+        if (channel != null && channel.isOpen() && day.equals(channelDay)) {
+            return channel;
+        }
+
+        // New day (or first write) - the previous segment is complete
+        syncAndMaybeClose(true);
+        store.prepareAppend(day);
+        Path file = store.segmentFile(day);
+        Files.createDirectories(file.getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        channelDay = day;
+        if (channel.size() == 0) {
+            channel.write(StandardCharsets.UTF_8.encode(CSV_HEADER));
+        }
+        return channel;
+    }
+
+    private void syncAndMaybeClose(boolean close) {
+        if (channel == null || !channel.isOpen()) return;
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to sync changes: " + e.getMessage());
+        }
+        if (close) {
+            closeChannelQuietly();
+        }
+    }
+
+    private void closeChannelQuietly() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException ignored) {
+        }
+        channel = null;
+        channelDay = null;
+    }
+
+    static void appendCsvLine(StringBuilder sb, ClaimChangeTracker.PendingChange change) {
+        sb.append(change.timestamp().format(CSV_TIMESTAMP)).append(",");
+        sb.append(change.teamId()).append(",");
+        sb.append(escapeCsv(change.teamName())).append(",");
+        sb.append(ClaimDimensions.nameOf(change.dimension())).append(",");
+        sb.append(change.chunkX()).append(",");
+        sb.append(change.chunkZ()).append(",");
+        sb.append(change.type().name()).append("\n");
+    }
+
+    static String escapeCsv(String value) {
+        if (value == null) return "";
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    /**
+     * Queue marker that completes once every change queued before it is on disk.
+     */
+    private record Barrier(boolean close, CompletableFuture<Void> done) {
+        Barrier(boolean close) {
+            this(close, new CompletableFuture<>());
+        }
+    }
+}
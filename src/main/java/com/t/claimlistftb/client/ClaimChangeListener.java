@@ -0,0 +1,40 @@
+package com.t.claimlistftb.client;
+
+import java.util.List;
+
+/**
+ * Receives claim tracker events on the client thread, batched per tick.
+ * Register with ClaimChangeTracker.addListener; all methods are optional.
+ */
+public interface ClaimChangeListener {
+
+    /**
+     * Chunks claimed since the last tick.
+     */
+    default void onClaimsAdded(List<ClaimEventBus.ClaimEvent> events) {}
+
+    /**
+     * Chunks unclaimed since the last tick.
+     */
+    default void onClaimsRemoved(List<ClaimEventBus.ClaimEvent> events) {}
+
+    /**
+     * Chunks that moved from one team to another since the last tick.
+     */
+    default void onClaimsTransferred(List<ClaimEventBus.ClaimEvent> events) {}
+
+    /**
+     * Teams whose display name changed since the last tick.
+     */
+    default void onTeamsRenamed(List<ClaimEventBus.TeamRename> renames) {}
+
+    /**
+     * The initial sync after joining finished (offline changes have been published as claim events).
+     */
+    default void onSyncCompleted() {}
+
+    /**
+     * Changes were written to the connected server's history (after coalescing).
+     */
+    default void onHistoryAppended() {}
+}
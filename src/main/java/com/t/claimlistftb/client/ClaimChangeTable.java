@@ -0,0 +1,627 @@
+package com.t.claimlistftb.client;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Column-oriented claim change history: one primitive array per field instead of a record per row.
+ * Team ids and team names are stored once in dictionaries and referenced by index, and dimensions
+ * by their ClaimDimensions id, so a row costs about 37 bytes however long the names are (29 in the
+ * columns, plus its entries in the team and region row lists below). Timestamps are kept to the millisecond.
+ * Rows must be appended in time order. Each team's rows are also kept in a per-team row list,
+ * so one team's slice of a time range is found by binary search instead of a scan, and rows are
+ * bucketed by dimension and 32x32-chunk region so "what changed near here" only looks at nearby rows.
+ * Single writer; readers take View snapshots. Rows, dictionary entries and index entries are only
+ * ever written past what an earlier View can see, and arrays are replaced rather than resized, so a
+ * View shares them as they are and never changes once taken.
+ */
+public class ClaimChangeTable {
+
+    private static final ClaimChangeReader.ChangeType[] TYPES = ClaimChangeReader.ChangeType.values();
+
+    private long[] times;
+    private int[] teams;
+    private int[] names;
+    private int[] dimensions;
+    private int[] chunkXs;
+    private int[] chunkZs;
+    private byte[] types;
+    private int size;
+
+    // Rows of each team in ascending order, indexed by team dictionary index
+    private RowIndex[] teamRows = new RowIndex[16];
+
+    // Spatial index: per dimension id, packed region -> bucket id + 1; each bucket lists its rows ascending
+    private static final int REGION_SHIFT = 5;
+    private ChunkClaimMap[] regionBuckets = new ChunkClaimMap[4];
+    private boolean[] regionBucketsShared = new boolean[4]; // a View holds the map; copy before adding a region
+    private RowIndex[] bucketRows = new RowIndex[16];
+    private int bucketCount;
+
+    private final Dictionary teamIds;
+    private final Dictionary teamNames;
+
+    public ClaimChangeTable() {
+        this(16, new Dictionary(), new Dictionary());
+    }
+
+    private ClaimChangeTable(int capacity, Dictionary teamIds, Dictionary teamNames) {
+        times = new long[capacity];
+        teams = new int[capacity];
+        names = new int[capacity];
+        dimensions = new int[capacity];
+        chunkXs = new int[capacity];
+        chunkZs = new int[capacity];
+        types = new byte[capacity];
+        this.teamIds = teamIds;
+        this.teamNames = teamNames;
+    }
+
+    /**
+     * Empty table sharing a copy of this table's dictionaries, so rows can be copied across with appendRow.
+     */
+    public ClaimChangeTable emptyCopy(int capacity) {
+        return new ClaimChangeTable(Math.max(capacity, 16), teamIds.copy(), teamNames.copy());
+    }
+
+    /**
+     * Sort key for a timestamp: local date-time millis (treated as UTC so it never jumps at DST changes).
+     */
+    public static long toMillis(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1000L + timestamp.getNano() / 1_000_000;
+    }
+
+    public static LocalDateTime toTimestamp(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Time of the newest row, or Long.MIN_VALUE if empty.
+     */
+    public long lastTime() {
+        return size == 0 ? Long.MIN_VALUE : times[size - 1];
+    }
+
+    public long time(int row) {
+        return times[row];
+    }
+
+    public void append(ClaimChangeReader.ClaimChange change) {
+        ensureCapacity(size + 1);
+        times[size] = toMillis(change.timestamp());
+        teams[size] = teamIds.intern(change.teamId());
+        indexTeamRow(teams[size], size);
+        names[size] = teamNames.intern(change.teamName());
+        dimensions[size] = change.dimension() != null ? ClaimDimensions.idOf(change.dimension()) : 0;
+        chunkXs[size] = change.chunkX();
+        chunkZs[size] = change.chunkZ();
+        indexRegionRow(dimensions[size], chunkXs[size], chunkZs[size], size);
+        types[size] = (byte) change.type().ordinal();
+        size++;
+    }
+
+    /**
+     * Copy a row from the table this one was made from with emptyCopy.
+     */
+    public void appendRow(ClaimChangeTable source, int row) {
+        ensureCapacity(size + 1);
+        times[size] = source.times[row];
+        teams[size] = source.teams[row];
+        indexTeamRow(teams[size], size);
+        names[size] = source.names[row];
+        dimensions[size] = source.dimensions[row];
+        chunkXs[size] = source.chunkXs[row];
+        chunkZs[size] = source.chunkZs[row];
+        indexRegionRow(dimensions[size], chunkXs[size], chunkZs[size], size);
+        types[size] = source.types[row];
+        size++;
+    }
+
+    /**
+     * Snapshot of every row appended so far.
+     */
+    public View view() {
+        Arrays.fill(regionBucketsShared, true);
+        return new View(this, 0, size, null);
+    }
+
+    private void indexTeamRow(int team, int row) {
+        if (team >= teamRows.length) {
+            teamRows = Arrays.copyOf(teamRows, Math.max(team + 1, teamRows.length * 2));
+        }
+        teamRows[team] = RowIndex.add(teamRows[team], row);
+    }
+
+    private void indexRegionRow(int dimension, int chunkX, int chunkZ, int row) {
+        if (dimension >= regionBuckets.length) {
+            int capacity = Math.max(dimension + 1, regionBuckets.length * 2);
+            regionBuckets = Arrays.copyOf(regionBuckets, capacity);
+            regionBucketsShared = Arrays.copyOf(regionBucketsShared, capacity);
+        }
+
+        long region = packRegion(chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT);
+        ChunkClaimMap buckets = regionBuckets[dimension];
+        int bucket = buckets != null ? buckets.get(region) - 1 : -1;
+        if (bucket < 0) {
+            if (buckets == null || regionBucketsShared[dimension]) {
+                buckets = buckets == null ? new ChunkClaimMap() : buckets.copy();
+                // A View may hold this array too, so the new map goes into a copy
+                regionBuckets = regionBuckets.clone();
+                regionBuckets[dimension] = buckets;
+                regionBucketsShared[dimension] = false;
+            }
+
+            if (bucketCount == bucketRows.length) {
+                bucketRows = Arrays.copyOf(bucketRows, bucketCount * 2);
+            }
+            bucket = bucketCount++;
+            buckets.put(region, bucket + 1);
+        }
+
+        bucketRows[bucket] = RowIndex.add(bucketRows[bucket], row);
+    }
+
+    private static long packRegion(int x, int z) {
+        return ((long) x & 0xFFFFFFFFL) | (((long) z & 0xFFFFFFFFL) << 32);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= times.length) {
+            return;
+        }
+        int capacity = Math.max(needed, times.length + (times.length >> 1));
+        times = Arrays.copyOf(times, capacity);
+        teams = Arrays.copyOf(teams, capacity);
+        names = Arrays.copyOf(names, capacity);
+        dimensions = Arrays.copyOf(dimensions, capacity);
+        chunkXs = Arrays.copyOf(chunkXs, capacity);
+        chunkZs = Arrays.copyOf(chunkZs, capacity);
+        types = Arrays.copyOf(types, capacity);
+    }
+
+    /**
+     * Growable int list for collecting rows.
+     */
+    private static final class RowList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Rows of one team or region bucket, ascending. Slots not yet written hold Integer.MAX_VALUE, so a
+     * View can binary search the whole array for rows below its end without knowing the count; rows
+     * added later are never below it either. A full index is copied into a new RowIndex, and since
+     * rows is final, a View that reads the new one from its shared index array sees the copied rows.
+     */
+    private static final class RowIndex {
+        final int[] rows;
+        int count; // writer only
+
+        private RowIndex(int[] rows, int count) {
+            Arrays.fill(rows, count, rows.length, Integer.MAX_VALUE);
+            this.rows = rows;
+            this.count = count;
+        }
+
+        static RowIndex add(RowIndex index, int row) {
+            if (index == null) {
+                index = new RowIndex(new int[8], 0);
+            } else if (index.count == index.rows.length) {
+                index = new RowIndex(Arrays.copyOf(index.rows, index.count * 2), index.count);
+            }
+            index.rows[index.count++] = row;
+            return index;
+        }
+    }
+
+    /**
+     * Append-only value table. Index 0 is reserved for null.
+     */
+    private static final class Dictionary {
+        private Object[] values;
+        private int count;
+        private final Map<Object, Integer> indices;
+
+        Dictionary() {
+            values = new Object[16];
+            count = 1;
+            indices = new HashMap<>();
+        }
+
+        private Dictionary(Dictionary other) {
+            values = other.values.clone();
+            count = other.count;
+            indices = new HashMap<>(other.indices);
+        }
+
+        Dictionary copy() {
+            return new Dictionary(this);
+        }
+
+        int intern(Object value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer index = indices.get(value);
+            if (index != null) {
+                return index;
+            }
+
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count] = value;
+            indices.put(value, count);
+            return count++;
+        }
+    }
+
+    /**
+     * Immutable selection of rows, in time order (oldest first).
+     * Either a contiguous range or an explicit list of rows; positions passed to the accessors
+     * are 0..size()-1 within the view. Reading a column never creates a ClaimChange.
+     */
+    public static final class View {
+
+        public static final View EMPTY = new ClaimChangeTable().view();
+
+        private final long[] times;
+        private final int[] teams;
+        private final int[] names;
+        private final int[] dimensions;
+        private final int[] chunkXs;
+        private final int[] chunkZs;
+        private final byte[] types;
+        private final Object[] teamIdValues;
+        private final Object[] teamNameValues;
+        private final int teamCount;
+        private final int dimensionCount;
+        private final RowIndex[] teamRows;
+        private final ChunkClaimMap[] regionBuckets;
+        private final RowIndex[] bucketRows;
+
+        private final int start;
+        private final int end;
+        private final int[] rows; // null = the range start..end
+
+        private View(ClaimChangeTable table, int start, int end, int[] rows) {
+            this.times = table.times;
+            this.teams = table.teams;
+            this.names = table.names;
+            this.dimensions = table.dimensions;
+            this.chunkXs = table.chunkXs;
+            this.chunkZs = table.chunkZs;
+            this.types = table.types;
+            this.teamIdValues = table.teamIds.values;
+            this.teamNameValues = table.teamNames.values;
+            this.teamCount = table.teamIds.count;
+            this.dimensionCount = ClaimDimensions.count();
+            this.teamRows = table.teamRows;
+            this.regionBuckets = table.regionBuckets;
+            this.bucketRows = table.bucketRows;
+            this.start = start;
+            this.end = end;
+            this.rows = rows;
+        }
+
+        private View(View parent, int start, int end, int[] rows) {
+            this.times = parent.times;
+            this.teams = parent.teams;
+            this.names = parent.names;
+            this.dimensions = parent.dimensions;
+            this.chunkXs = parent.chunkXs;
+            this.chunkZs = parent.chunkZs;
+            this.types = parent.types;
+            this.teamIdValues = parent.teamIdValues;
+            this.teamNameValues = parent.teamNameValues;
+            this.teamCount = parent.teamCount;
+            this.dimensionCount = parent.dimensionCount;
+            this.teamRows = parent.teamRows;
+            this.regionBuckets = parent.regionBuckets;
+            this.bucketRows = parent.bucketRows;
+            this.start = start;
+            this.end = end;
+            this.rows = rows;
+        }
+
+        public int size() {
+            return rows != null ? rows.length : end - start;
+        }
+
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        private int row(int position) {
+            return rows != null ? rows[position] : start + position;
+        }
+
+        public long time(int position) {
+            return times[row(position)];
+        }
+
+        public LocalDateTime timestamp(int position) {
+            return toTimestamp(times[row(position)]);
+        }
+
+        /**
+         * Dictionary index of the row's team (0 = no team). Below teamCount().
+         */
+        public int teamIndex(int position) {
+            return teams[row(position)];
+        }
+
+        public UUID teamId(int position) {
+            return (UUID) teamIdValues[teams[row(position)]];
+        }
+
+        /**
+         * Dictionary index of the team name recorded on the row (0 = none).
+         */
+        public int teamNameIndex(int position) {
+            return names[row(position)];
+        }
+
+        public String teamName(int position) {
+            return (String) teamNameValues[names[row(position)]];
+        }
+
+        /**
+         * ClaimDimensions id of the row's dimension. Below dimensionCount().
+         */
+        public int dimensionIndex(int position) {
+            return dimensions[row(position)];
+        }
+
+        public ResourceKey<Level> dimension(int position) {
+            return ClaimDimensions.byId(dimensions[row(position)]);
+        }
+
+        public int chunkX(int position) {
+            return chunkXs[row(position)];
+        }
+
+        public int chunkZ(int position) {
+            return chunkZs[row(position)];
+        }
+
+        public ClaimChangeReader.ChangeType type(int position) {
+            return TYPES[types[row(position)]];
+        }
+
+        public UUID teamIdAt(int teamIndex) {
+            return (UUID) teamIdValues[teamIndex];
+        }
+
+        public String teamNameAt(int nameIndex) {
+            return (String) teamNameValues[nameIndex];
+        }
+
+        public ResourceKey<Level> dimensionAt(int dimensionIndex) {
+            return ClaimDimensions.byId(dimensionIndex);
+        }
+
+        public int teamCount() {
+            return teamCount;
+        }
+
+        public int dimensionCount() {
+            return dimensionCount;
+        }
+
+        /**
+         * ClaimDimensions id of a dimension, or -1 if no row of this view can have it.
+         */
+        public int dimensionIndexOf(ResourceKey<Level> dimension) {
+            int id = ClaimDimensions.find(dimension);
+            return id < dimensionCount ? id : -1;
+        }
+
+        /**
+         * Build a record for one row (for callers that still want ClaimChange objects).
+         */
+        public ClaimChangeReader.ClaimChange get(int position) {
+            return new ClaimChangeReader.ClaimChange(timestamp(position), teamId(position), teamName(position),
+                    dimension(position), chunkX(position), chunkZ(position), type(position));
+        }
+
+        /**
+         * First position whose time is at or after millis (size() if none); views are in time order.
+         */
+        public int indexOfTime(long millis) {
+            int low = 0;
+            int high = size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[row(mid)] < millis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Positions from..to-1 of this view.
+         */
+        public View range(int from, int to) {
+            Objects.checkFromToIndex(from, to, size());
+            if (rows == null) {
+                return new View(this, start + from, start + to, null);
+            }
+            return new View(this, 0, 0, Arrays.copyOfRange(rows, from, to));
+        }
+
+        /**
+         * This view's rows split by team, indexed by team dictionary index (null where the team has
+         * no rows here; index 0, no team, is always null). For a range view each team's rows are
+         * found by binary search in the table's per-team row lists, so the cost follows the number
+         * of teams and their rows in the range rather than the size of the range.
+         */
+        public View[] byTeam() {
+            View[] result = new View[teamCount];
+            if (rows == null) {
+                for (int team = 1; team < teamCount && team < teamRows.length; team++) {
+                    RowIndex index = teamRows[team];
+                    if (index == null) {
+                        continue;
+                    }
+                    int[] all = index.rows;
+                    int from = lowerBound(all, start);
+                    int to = lowerBound(all, end);
+                    if (from < to) {
+                        result[team] = new View(this, 0, 0, Arrays.copyOfRange(all, from, to));
+                    }
+                }
+                return result;
+            }
+
+            // Explicit row list: one counting pass, one fill pass
+            int[] counts = new int[teamCount];
+            for (int row : rows) {
+                counts[teams[row]]++;
+            }
+            int[][] selected = new int[teamCount][];
+            for (int team = 1; team < teamCount; team++) {
+                if (counts[team] > 0) {
+                    selected[team] = new int[counts[team]];
+                    counts[team] = 0;
+                }
+            }
+            for (int row : rows) {
+                int team = teams[row];
+                if (team != 0) {
+                    selected[team][counts[team]++] = row;
+                }
+            }
+            for (int team = 1; team < teamCount; team++) {
+                if (selected[team] != null) {
+                    result[team] = new View(this, 0, 0, selected[team]);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Rows of this view in a dimension within radius chunks of a chunk (a square, like the
+         * claim grid), oldest first. For a range view only the region buckets overlapping the
+         * square are read, and within each bucket only the rows in range.
+         */
+        public View near(int dimensionIndex, int chunkX, int chunkZ, int radius) {
+            int minX = chunkX - radius;
+            int maxX = chunkX + radius;
+            int minZ = chunkZ - radius;
+            int maxZ = chunkZ + radius;
+            RowList found = new RowList();
+
+            if (rows != null) {
+                for (int row : rows) {
+                    if (dimensions[row] == dimensionIndex && inBox(row, minX, maxX, minZ, maxZ)) {
+                        found.add(row);
+                    }
+                }
+                return new View(this, 0, 0, found.toArray());
+            }
+
+            ChunkClaimMap buckets = dimensionIndex > 0 && dimensionIndex < regionBuckets.length
+                    ? regionBuckets[dimensionIndex] : null;
+            if (buckets == null) {
+                return new View(this, 0, 0, new int[0]);
+            }
+
+            // Probe each region in the square, or walk the buckets if that's fewer lookups
+            int minRegionX = minX >> REGION_SHIFT;
+            int maxRegionX = maxX >> REGION_SHIFT;
+            int minRegionZ = minZ >> REGION_SHIFT;
+            int maxRegionZ = maxZ >> REGION_SHIFT;
+            RowList matched = new RowList();
+            long regions = (long) (maxRegionX - minRegionX + 1) * (maxRegionZ - minRegionZ + 1);
+            if (regions <= buckets.size()) {
+                for (int regionX = minRegionX; regionX <= maxRegionX; regionX++) {
+                    for (int regionZ = minRegionZ; regionZ <= maxRegionZ; regionZ++) {
+                        int bucket = buckets.get(packRegion(regionX, regionZ));
+                        if (bucket != ChunkClaimMap.NO_TEAM) {
+                            matched.add(bucket - 1);
+                        }
+                    }
+                }
+            } else {
+                buckets.forEach((region, bucket) -> {
+                    int regionX = (int) region;
+                    int regionZ = (int) (region >>> 32);
+                    if (regionX >= minRegionX && regionX <= maxRegionX && regionZ >= minRegionZ && regionZ <= maxRegionZ) {
+                        matched.add(bucket - 1);
+                    }
+                });
+            }
+
+            for (int i = 0; i < matched.size; i++) {
+                int bucket = matched.values[i];
+                int[] bucketRowList = bucketRows[bucket].rows;
+                int to = lowerBound(bucketRowList, end);
+                for (int j = lowerBound(bucketRowList, start); j < to; j++) {
+                    int row = bucketRowList[j];
+                    if (inBox(row, minX, maxX, minZ, maxZ)) {
+                        found.add(row);
+                    }
+                }
+            }
+
+            int[] result = found.toArray();
+            Arrays.sort(result);
+            return new View(this, 0, 0, result);
+        }
+
+        private boolean inBox(int row, int minX, int maxX, int minZ, int maxZ) {
+            int x = chunkXs[row];
+            int z = chunkZs[row];
+            return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+        }
+
+        private static int lowerBound(int[] values, int key) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * The given positions of this view, which must be ascending.
+         */
+        public View select(int[] positions) {
+            int[] selected = new int[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                selected[i] = row(positions[i]);
+            }
+            return new View(this, 0, 0, selected);
+        }
+    }
+}
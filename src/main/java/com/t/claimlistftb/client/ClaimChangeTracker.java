@@ -3,17 +3,17 @@ package com.t.claimlistftb.client;
 import com.t.claimlistftb.client.config.ClaimTrackerConfig;
 import com.t.claimlistftb.client.gui.ClaimChangeHistoryScreen;
 import com.t.claimlistftb.client.gui.PlayerClaimListScreen;
-import dev.ftb.mods.ftbteams.api.FTBTeamsAPI;
+import dev.ftb.mods.ftbchunks.data.ChunkSyncInfo;
 import net.minecraft.client.Minecraft;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.world.level.Level;
 
 import java.io.IOException;
 import java.nio.file.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
 
 /**
  * Tracks claim changes in real-time by intercepting server sync packets.
@@ -24,41 +24,74 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ClaimChangeTracker {
 
     private static final ClaimChangeTracker INSTANCE = new ClaimChangeTracker();
-    private static final DateTimeFormatter CSV_TIMESTAMP = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
     // Cache of known chunk states: dimension -> (chunkPos -> teamId)
-    private final Map<ResourceKey<Level>, Map<Long, UUID>> chunkStateCache = new ConcurrentHashMap<>();
+    private final ChunkStateStore chunkStateCache = new ChunkStateStore();
+
+    // Bumped after every applied batch; readers use it to reuse snapshots
+    private volatile long cacheVersion = 0;
+    private volatile CachedSnapshot cachedSnapshot = null;
+
+    // Packets are applied on the ingest thread, which is the only writer of the caches,
+    // pending changes, journal and checkpoints. Flushes once per burst of packets.
+    private final ClaimIngestPipeline ingest = new ClaimIngestPipeline(this::applyChunkBatch, this::flushPendingChanges);
 
     // Pending changes to write (batched for efficiency)
     private final List<PendingChange> pendingChanges = Collections.synchronizedList(new ArrayList<>());
 
+    // Live changes are held here for the coalescing window before reaching pendingChanges
+    private final ClaimChangeCoalescer coalescer = new ClaimChangeCoalescer();
+
+    // Compresses old segments at low priority; kept off the ingest thread so join-time packets aren't held up
+    private static final long COMPRESSION_STOP_TIMEOUT_SECONDS = 10;
+    private final ExecutorService compressor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ClaimListFTB Compressor");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private volatile boolean stopCompressing;
+    private Future<?> compression;
+
+    // Claim/sync/rename events, delivered to listeners once per client tick
+    private final ClaimEventBus events = new ClaimEventBus();
+
+    // Background writer for the changes CSV (created on first flush)
+    private ClaimChangeJournal journal;
+
+    // Snapshot + delta persistence for the claim cache
+    private ClaimCheckpointStore checkpoints;
+    private long lastDeltaCommitTime = 0;
+
     // Current server info
-    private UUID currentServerId;
+    private volatile UUID currentServerId;
     private String currentServerName;
     private boolean isSingleplayer;
-    private Path changesFile;
+    private Path historyDir;
+    private Path legacyChangesFile; // Single-file history from before segments, migrated once
+    private volatile ClaimHistoryStore historyStore;
+    private volatile ClaimHistoryRepository.ServerHistory liveHistory; // In-memory history fed as changes are written
     private Path cacheFile;
+    private Path legacyCacheFile; // Pre-binary CSV cache, imported once
 
     // Previous session cache (loaded from disk)
-    private Map<ResourceKey<Level>, Map<Long, UUID>> previousCache = new HashMap<>();
+    private final ChunkStateStore previousCache = new ChunkStateStore();
     private int previousCacheSize = 0;
     
     // Track previous cache per dimension for smarter validation
     private Map<ResourceKey<Level>, Integer> previousCachePerDimension = new HashMap<>();
 
     // Track if we're in the initial sync phase
-    private boolean initialSyncComplete = false;
-    private long lastSyncTime = 0;
+    private volatile boolean initialSyncComplete = false;
+    private volatile long lastSyncTime = 0;
     private int chunksReceivedDuringSync = 0;
+    private boolean syncCompletionQueued = false;
     
     // Dynamic sync window - extends if we're still receiving chunks
     private static final long BASE_SYNC_WINDOW_MS = 10000; // 10 seconds base
     private static final long EXTENDED_SYNC_WINDOW_MS = 20000; // 20 seconds if suspicious
     private long currentSyncWindowMs = BASE_SYNC_WINDOW_MS;
     
-    // Safety threshold: if we receive less than this percentage of previous chunks, warn about possible data loss
-    private static final double CHUNK_LOSS_THRESHOLD = 0.5; // 50%
-    
     // Minimum previous chunks before we apply the safety threshold
     private static final int MIN_CHUNKS_FOR_SAFETY_CHECK = 10;
     
@@ -89,13 +122,16 @@ public class ClaimChangeTracker {
         this.isSingleplayer = singleplayer;
         this.initialSyncComplete = false;
         this.lastSyncTime = System.currentTimeMillis();
-        this.chunksReceivedDuringSync = 0;
+        this.syncCompletionQueued = false;
         this.currentSyncWindowMs = BASE_SYNC_WINDOW_MS;
         
         // Reset AFK state
         this.lastPlayerActivityTime = System.currentTimeMillis();
         this.isAfk = false;
 
+        // Team metadata from a previous server is meaningless here
+        TeamInfoCache.reset();
+
         // Build server name for filenames
         if (singleplayer) {
             Minecraft mc = Minecraft.getInstance();
@@ -121,33 +157,101 @@ public class ClaimChangeTracker {
             return;
         }
         
-        // Create directories
-        try {
-            Files.createDirectories(changesFile.getParent());
-        } catch (IOException e) {
-            System.err.println("[ClaimListFTB] Failed to create changes folder: " + e.getMessage());
-        }
+        // A previous session's compression may still be running if leave was missed
+        stopCompression();
 
-        // Load previous session's cache for comparison
-        loadPreviousCache();
+        // Reset the caches on the ingest thread, ahead of this server's first packet
+        ingest.submitAndWait(() -> {
+            // Create directories
+            try {
+                Files.createDirectories(historyDir.getParent());
+            } catch (IOException e) {
+                System.err.println("[ClaimListFTB] Failed to create changes folder: " + e.getMessage());
+            }
 
-        // Clear current cache for fresh data from server
-        chunkStateCache.clear();
-        pendingChanges.clear();
+            // Open the segmented history (migrating the old single CSV) and apply retention
+            historyStore = ClaimHistoryStore.open(historyDir, legacyChangesFile);
+            historyStore.prune(LocalDateTime.now().minusDays(ClaimHistoryStore.RETENTION_DAYS));
+            liveHistory = ClaimHistoryRepository.getInstance().attach(serverId, historyStore);
+
+            // Load previous session's cache for comparison
+            closeCheckpoints();
+            checkpoints = new ClaimCheckpointStore(cacheFile);
+            loadPreviousCache();
+            updateServerManifest(previousCacheSize);
+
+            // Clear current cache for fresh data from server
+            chunkStateCache.clear();
+            pendingChanges.clear();
+            coalescer.clear();
+            chunksReceivedDuringSync = 0;
+            cacheVersion++;
+        });
+
+        // Compress segments past the configured age in the background; readers handle either form
+        ClaimHistoryStore store = historyStore;
+        if (store != null) {
+            LocalDate cutoff = LocalDate.now().minusDays(ClaimTrackerConfig.getCompressAfterDays());
+            stopCompressing = false;
+            compression = compressor.submit(() -> store.compressBefore(cutoff, () -> stopCompressing));
+        }
+    }
+
+    /**
+     * Stop background compression after the day it's on, so the next join never opens
+     * a store on a directory that is still being compressed.
+     */
+    private void stopCompression() {
+        Future<?> running = compression;
+        if (running == null) {
+            return;
+        }
+        stopCompressing = true;
+        try {
+            running.get(COMPRESSION_STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            System.err.println("[ClaimListFTB] History compression is taking long, continuing without waiting");
+        } catch (ExecutionException e) {
+            System.err.println("[ClaimListFTB] History compression failed: " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compression = null;
     }
 
     /**
      * Called when leaving a server/world
      */
     public void onServerLeave() {
-        // Only save if tracking was enabled
-        if (ClaimTrackerConfig.isTrackingEnabled() && currentServerId != null) {
-            // Save current cache to disk for next session
-            saveCacheToFile();
-            
-            // Flush any pending changes
-            flushPendingChanges();
-        }
+        // Apply whatever is still queued, then block until the journal and
+        // cache deltas are written and synced
+        boolean save = ClaimTrackerConfig.isTrackingEnabled() && currentServerId != null;
+        UUID leavingServerId = currentServerId;
+        stopCompression();
+        ingest.submitAndWait(() -> {
+            // Only save if tracking was enabled
+            if (save) {
+                flushAllPendingChanges();
+                if (initialSyncComplete) {
+                    updateServerManifest(chunkStateCache.size());
+                }
+            }
+            closeJournal();
+            closeCheckpoints();
+            historyStore = null;
+            if (liveHistory != null) {
+                ClaimHistoryRepository.getInstance().detach(leavingServerId);
+                liveHistory = null;
+            }
+
+            chunkStateCache.clear();
+            pendingChanges.clear();
+            coalescer.clear();
+            previousCache.clear();
+            previousCachePerDimension.clear();
+            previousCacheSize = 0;
+            cacheVersion++;
+        });
         
         // Clear UI persistent state (search text, expanded lists, scroll positions)
         PlayerClaimListScreen.clearPersistentState();
@@ -155,98 +259,155 @@ public class ClaimChangeTracker {
 
         this.currentServerId = null;
         this.currentServerName = null;
-        this.changesFile = null;
+        this.historyDir = null;
+        this.legacyChangesFile = null;
         this.cacheFile = null;
+        this.legacyCacheFile = null;
         this.initialSyncComplete = false;
         this.isAfk = false;
-        chunkStateCache.clear();
-        pendingChanges.clear();
-        previousCache.clear();
-        previousCachePerDimension.clear();
-        previousCacheSize = 0;
+        this.cachedSnapshot = null;
+        events.clearPending();
+        TeamInfoCache.reset();
+        PlayerClaimFinder.invalidateCache();
     }
 
     /**
-     * Process a chunk update from the server.
+     * Queue every chunk of a single updateChunksFromServer packet.
+     * Only copies the packet; the cache update and change detection happen on the
+     * ingest thread so the network hook returns immediately.
      */
-    public void processChunkUpdate(ResourceKey<Level> dimension, int chunkX, int chunkZ, boolean nowClaimed, UUID teamId) {
-        if (!ClaimTrackerConfig.isTrackingEnabled() || currentServerId == null) {
+    public void processChunkBatch(ResourceKey<Level> dimension, UUID teamId, Collection<ChunkSyncInfo> chunks) {
+        if (!ClaimTrackerConfig.isTrackingEnabled() || currentServerId == null || chunks.isEmpty()) {
             return;
         }
-        
-        // If player returns from AFK while receiving chunks, reset activity timer
-        if (isAfk) {
-            // Still process the chunk even if AFK, but don't change AFK state here
-            // (that's handled in tick() based on player movement)
-        }
 
-        // Update last sync time
         lastSyncTime = System.currentTimeMillis();
 
-        // Get or create dimension cache
-        Map<Long, UUID> dimCache = chunkStateCache.computeIfAbsent(dimension, k -> new ConcurrentHashMap<>());
+        long[] chunkKeys = new long[chunks.size()];
+        boolean[] claimed = new boolean[chunkKeys.length];
+        int count = 0;
+        for (ChunkSyncInfo info : chunks) {
+            if (count == chunkKeys.length) break;
+            chunkKeys[count] = chunkPosToLong(info.x(), info.z());
+            claimed[count] = info.claimed();
+            count++;
+        }
+        if (count < chunkKeys.length) {
+            chunkKeys = Arrays.copyOf(chunkKeys, count);
+            claimed = Arrays.copyOf(claimed, count);
+        }
+
+        resolveTeamName(teamId);
+        ingest.submit(new ClaimIngestPipeline.ChunkBatch(dimension, teamId, chunkKeys, claimed));
+    }
+
+    /**
+     * Resolve a packet's team on the client thread, so the ingest thread can name it from
+     * TeamInfoCache.knownName without touching FTB Teams. Every owner in the cache arrived in
+     * some packet this session, so its name is already known by the time it changes hands.
+     */
+    private static void resolveTeamName(UUID teamId) {
+        if (teamId != null) {
+            TeamInfoCache.get(teamId);
+        }
+    }
 
-        // Create chunk key
-        long chunkKey = chunkPosToLong(chunkX, chunkZ);
+    /**
+     * Apply one queued packet (ingest thread).
+     * The whole batch is applied under the store's lock so readers never see half a packet.
+     * Team names are resolved once per batch; the journal flush happens once the queue drains.
+     */
+    private void applyChunkBatch(ClaimIngestPipeline.ChunkBatch batch) {
+        if (currentServerId == null || !ClaimTrackerConfig.isTrackingEnabled()) {
+            return;
+        }
 
-        // During initial sync, just build the cache
-        if (!initialSyncComplete) {
-            chunksReceivedDuringSync++;
-            if (nowClaimed) {
-                dimCache.put(chunkKey, teamId);
+        ResourceKey<Level> dimension = batch.dimension();
+        UUID teamId = batch.teamId();
+        long[] chunkKeys = batch.chunkKeys();
+        boolean[] claimed = batch.claimed();
+
+        synchronized (chunkStateCache) {
+            // During initial sync, just build the cache
+            if (!initialSyncComplete) {
+                chunksReceivedDuringSync += batch.size();
+                for (int i = 0; i < chunkKeys.length; i++) {
+                    applyChunkState(dimension, chunkKeys[i], claimed[i], teamId);
+                }
             } else {
-                dimCache.remove(chunkKey);
+                LocalDateTime now = LocalDateTime.now();
+                long nowMillis = System.currentTimeMillis();
+
+                for (int i = 0; i < chunkKeys.length; i++) {
+                    long chunkKey = chunkKeys[i];
+                    UUID previousOwner = applyChunkState(dimension, chunkKey, claimed[i], teamId);
+                    recordChange(dimension, (int) chunkKey, (int) (chunkKey >> 32), previousOwner,
+                        claimed[i] ? teamId : null, now, nowMillis);
+                }
             }
+            cacheVersion++;
+        }
+    }
+
+    /**
+     * Update the cache with a chunk's new state. Returns the previous owner (or null).
+     */
+    private UUID applyChunkState(ResourceKey<Level> dimension, long chunkKey, boolean nowClaimed, UUID teamId) {
+        UUID previousOwner = nowClaimed
+            ? chunkStateCache.put(dimension, chunkKey, teamId)
+            : chunkStateCache.remove(dimension, chunkKey);
+
+        // After initial sync, every real change becomes a cache delta
+        if (initialSyncComplete && checkpoints != null) {
+            if (nowClaimed && !teamId.equals(previousOwner)) {
+                checkpoints.recordPut(dimension, chunkKey, teamId);
+            } else if (!nowClaimed && previousOwner != null) {
+                checkpoints.recordRemove(dimension, chunkKey);
+            }
+        }
+        return previousOwner;
+    }
+
+    /**
+     * Record a chunk moving from previousOwner to newOwner (null = unclaimed).
+     * The change is published right away but only reaches the history file once its
+     * coalescing window has passed.
+     */
+    private void recordChange(ResourceKey<Level> dimension, int chunkX, int chunkZ, UUID previousOwner,
+                              UUID newOwner, LocalDateTime now, long nowMillis) {
+        if (Objects.equals(previousOwner, newOwner)) {
             return;
         }
 
-        // After initial sync, detect changes
-        UUID previousOwner = dimCache.get(chunkKey);
-        boolean wasClaimed = previousOwner != null;
-
-        // Detect state changes
-        if (wasClaimed != nowClaimed) {
-            ClaimChangeReader.ChangeType changeType = nowClaimed ? 
-                ClaimChangeReader.ChangeType.ADD : 
-                ClaimChangeReader.ChangeType.REMOVE;
-
-            UUID ownerToRecord = nowClaimed ? teamId : previousOwner;
-            String teamName = getTeamName(ownerToRecord);
-
-            PendingChange change = new PendingChange(
-                LocalDateTime.now(),
-                ownerToRecord,
-                teamName,
-                dimension,
-                chunkX,
-                chunkZ,
-                changeType
-            );
-            pendingChanges.add(change);
-
-            flushPendingChanges();
-        } else if (wasClaimed && nowClaimed && !Objects.equals(previousOwner, teamId)) {
-            // Ownership transferred
-            String oldTeamName = getTeamName(previousOwner);
-            String newTeamName = getTeamName(teamId);
-
-            pendingChanges.add(new PendingChange(
-                LocalDateTime.now(), previousOwner, oldTeamName, dimension, chunkX, chunkZ,
-                ClaimChangeReader.ChangeType.REMOVE
-            ));
-            pendingChanges.add(new PendingChange(
-                LocalDateTime.now(), teamId, newTeamName, dimension, chunkX, chunkZ,
-                ClaimChangeReader.ChangeType.ADD
-            ));
-
-            flushPendingChanges();
-        }
-
-        // Update cache with current state
-        if (nowClaimed) {
-            dimCache.put(chunkKey, teamId);
-        } else {
-            dimCache.remove(chunkKey);
+        events.publishClaim(dimension, chunkX, chunkZ, previousOwner, newOwner, now);
+        coalescer.record(dimension, chunkX, chunkZ, previousOwner, newOwner, now, nowMillis);
+    }
+
+    /**
+     * Turn net changes into history rows. A transfer is a REMOVE for the old owner
+     * followed by an ADD for the new one; each team's name is resolved once.
+     */
+    private void queueNetChanges(List<ClaimChangeCoalescer.NetChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, String> teamNames = new HashMap<>();
+        synchronized (pendingChanges) {
+            for (ClaimChangeCoalescer.NetChange change : changes) {
+                if (change.from() != null) {
+                    pendingChanges.add(new PendingChange(
+                        change.timestamp(), change.from(), teamNames.computeIfAbsent(change.from(), this::getTeamName),
+                        change.dimension(), change.chunkX(), change.chunkZ(), ClaimChangeReader.ChangeType.REMOVE
+                    ));
+                }
+                if (change.to() != null) {
+                    pendingChanges.add(new PendingChange(
+                        change.timestamp(), change.to(), teamNames.computeIfAbsent(change.to(), this::getTeamName),
+                        change.dimension(), change.chunkX(), change.chunkZ(), ClaimChangeReader.ChangeType.ADD
+                    ));
+                }
+            }
         }
     }
 
@@ -266,12 +427,29 @@ public class ClaimChangeTracker {
             checkAfkStatus();
         }
         
+        // Append cache deltas every check interval (written in the background)
+        if (initialSyncComplete
+                && now - lastDeltaCommitTime > ClaimTrackerConfig.getCheckIntervalSeconds() * 1000) {
+            lastDeltaCommitTime = now;
+            ingest.submit(() -> {
+                if (checkpoints != null) {
+                    checkpoints.commitDeltas();
+                    updateServerManifest(chunkStateCache.size());
+                }
+            });
+        }
+
+        // Release coalesced changes whose window has passed, even if no packets arrive
+        if (initialSyncComplete) {
+            ingest.submit(this::flushPendingChanges);
+        }
+        
         // If AFK, don't process sync completion (we'll do it when player returns)
         if (isAfk) {
             return;
         }
         
-        if (!initialSyncComplete) {
+        if (!initialSyncComplete && !syncCompletionQueued) {
             long timeSinceLastSync = now - lastSyncTime;
             
             // Check if we should extend the sync window
@@ -286,7 +464,15 @@ public class ClaimChangeTracker {
             }
             
             if (timeSinceLastSync > currentSyncWindowMs) {
-                completeInitialSync();
+                // Owners from the last session may have lost all their chunks since; name them here,
+                // on the client thread, before the offline diff records their removals
+                for (UUID teamId : previousCache.getTeamIds()) {
+                    resolveTeamName(teamId);
+                }
+
+                // Runs after every packet already queued
+                syncCompletionQueued = true;
+                ingest.submit(this::completeInitialSync);
             }
         }
     }
@@ -356,8 +542,7 @@ public class ClaimChangeTracker {
             
             // Only check dimensions with significant claims (50+)
             if (previousCount >= DIMENSION_MIN_CLAIMS_FOR_CHECK) {
-                Map<Long, UUID> currentDimCache = chunkStateCache.get(dim);
-                int currentCount = currentDimCache != null ? currentDimCache.size() : 0;
+                int currentCount = chunkStateCache.size(dim);
                 
                 // If we have 0 chunks but previously had 50+, something might be wrong
                 if (currentCount == 0) {
@@ -368,34 +553,45 @@ public class ClaimChangeTracker {
         return false;
     }
 
-    // Callback for when sync completes
-    private Runnable onSyncCompleteCallback = null;
-    
     /**
-     * Set a callback to be called when initial sync completes
+     * Subscribe to claim, rename and sync-completed events (delivered on the client thread)
+     */
+    public void addListener(ClaimChangeListener listener) {
+        events.addListener(listener);
+    }
+
+    public void removeListener(ClaimChangeListener listener) {
+        events.removeListener(listener);
+    }
+
+    /**
+     * Deliver events collected since the last call. Called every client tick.
+     */
+    public void dispatchEvents() {
+        events.dispatch();
+    }
+
+    /**
+     * Called by TeamInfoCache when a known team's display name changes
      */
-    public void setOnSyncCompleteCallback(Runnable callback) {
-        this.onSyncCompleteCallback = callback;
+    void onTeamRenamed(UUID teamId, String oldName, String newName) {
+        events.publishTeamRenamed(teamId, oldName, newName);
     }
 
     /**
-     * Complete initial sync and compare with previous session
+     * Complete initial sync and compare with previous session (ingest thread)
      */
     private void completeInitialSync() {
+        if (currentServerId == null || initialSyncComplete) {
+            return;
+        }
         initialSyncComplete = true;
-        int currentCacheSize = chunkStateCache.values().stream().mapToInt(Map::size).sum();
-        
-        // Ensure cache file exists (even if empty)
-        ensureCacheFileExists();
+        int currentCacheSize = chunkStateCache.size();
 
         // Safety check: detect possible data loss (global)
         boolean suspectGlobalDataLoss = false;
-        if (previousCacheSize >= MIN_CHUNKS_FOR_SAFETY_CHECK) {
-            double ratio = (double) currentCacheSize / previousCacheSize;
-            
-            if (currentCacheSize == 0 && previousCacheSize > MIN_CHUNKS_FOR_SAFETY_CHECK) {
-                suspectGlobalDataLoss = true;
-            }
+        if (currentCacheSize == 0 && previousCacheSize > MIN_CHUNKS_FOR_SAFETY_CHECK) {
+            suspectGlobalDataLoss = true;
         }
         
         // Per-dimension safety check
@@ -405,8 +601,7 @@ public class ClaimChangeTracker {
             int previousCount = entry.getValue();
             
             if (previousCount >= DIMENSION_MIN_CLAIMS_FOR_CHECK) {
-                Map<Long, UUID> currentDimCache = chunkStateCache.get(dim);
-                int currentCount = currentDimCache != null ? currentDimCache.size() : 0;
+                int currentCount = chunkStateCache.size(dim);
                 
                 if (currentCount == 0) {
                     suspectDimensions.add(dim);
@@ -415,123 +610,107 @@ public class ClaimChangeTracker {
         }
 
         // Detect changes that occurred while offline (unless we suspect data loss)
+        boolean fullDiffRecorded = false;
         if (!suspectGlobalDataLoss) {
-            detectOfflineChanges(suspectDimensions);
+            fullDiffRecorded = detectOfflineChanges(suspectDimensions) && suspectDimensions.isEmpty();
         }
         
-        // Save initial cache state
-        saveCacheToFile();
-        
-        // Notify callback that sync is complete
-        if (onSyncCompleteCallback != null) {
-            Minecraft.getInstance().execute(onSyncCompleteCallback);
+        // Save initial cache state: if the offline diff covered every dimension it is
+        // exactly the delta from the stored snapshot, otherwise write a full checkpoint
+        if (fullDiffRecorded && checkpoints != null && checkpoints.hasBase()) {
+            checkpoints.commitDeltas();
+        } else {
+            saveCacheToFile();
         }
+        lastDeltaCommitTime = System.currentTimeMillis();
+        updateServerManifest(currentCacheSize);
+        
+        // Listeners hear about it on the next client tick
+        events.publishSyncCompleted();
     }
 
     /**
      * Compare current state with previous session to detect offline changes
+     * Each difference is also recorded as a cache delta.
      * @param suspectDimensions Dimensions to skip due to suspected data loss
+     * @return false if there was no previous state to compare against
      */
-    private void detectOfflineChanges(Set<ResourceKey<Level>> suspectDimensions) {
-        if (previousCache.isEmpty()) {
-            return;
+    private boolean detectOfflineChanges(Set<ResourceKey<Level>> suspectDimensions) {
+        if (previousCache.isEmpty() || checkpoints == null) {
+            return false;
         }
 
-        int offlineAdds = 0;
-        int offlineRemoves = 0;
-        int offlineTransfers = 0;
-        int skippedDimensions = 0;
-
-        // Check for chunks that were unclaimed or transferred while offline
-        for (Map.Entry<ResourceKey<Level>, Map<Long, UUID>> dimEntry : previousCache.entrySet()) {
-            ResourceKey<Level> dimension = dimEntry.getKey();
-            
-            // Skip suspect dimensions
-            if (suspectDimensions.contains(dimension)) {
-                skippedDimensions++;
-                continue;
-            }
-            
-            Map<Long, UUID> prevDimCache = dimEntry.getValue();
-            Map<Long, UUID> currDimCache = chunkStateCache.getOrDefault(dimension, Collections.emptyMap());
+        // Sorted snapshots of both states, merged linearly per dimension
+        ClaimStateDiff diff = ClaimStateDiff.compute(previousCache.snapshot(), chunkStateCache.snapshot(), suspectDimensions);
+        if (diff.isEmpty()) {
+            return true;
+        }
 
-            for (Map.Entry<Long, UUID> chunkEntry : prevDimCache.entrySet()) {
-                long chunkKey = chunkEntry.getKey();
-                UUID prevOwner = chunkEntry.getValue();
-                UUID currOwner = currDimCache.get(chunkKey);
+        // One timestamp for the whole pass and one name lookup per team
+        LocalDateTime now = LocalDateTime.now();
+        Map<UUID, String> teamNames = new HashMap<>();
 
-                int[] coords = unpackChunkPos(chunkKey);
+        synchronized (pendingChanges) {
+            diff.forEach((dimension, chunkX, chunkZ, kind, prevOwner, currOwner) -> {
+                long chunkKey = chunkPosToLong(chunkX, chunkZ);
+                events.publishClaim(dimension, chunkX, chunkZ, prevOwner, currOwner, now);
 
-                if (currOwner == null) {
-                    // Chunk was unclaimed while offline
-                    String teamName = getTeamName(prevOwner);
-                    pendingChanges.add(new PendingChange(
-                        LocalDateTime.now(), prevOwner, teamName, dimension, coords[0], coords[1],
-                        ClaimChangeReader.ChangeType.REMOVE
-                    ));
-                    offlineRemoves++;
-                } else if (!currOwner.equals(prevOwner)) {
-                    // Ownership changed while offline
-                    String oldName = getTeamName(prevOwner);
-                    String newName = getTeamName(currOwner);
+                if (kind != ClaimStateDiff.ADD) {
+                    // Chunk was unclaimed or transferred while offline
                     pendingChanges.add(new PendingChange(
-                        LocalDateTime.now(), prevOwner, oldName, dimension, coords[0], coords[1],
-                        ClaimChangeReader.ChangeType.REMOVE
+                        now, prevOwner, teamNames.computeIfAbsent(prevOwner, this::getTeamName),
+                        dimension, chunkX, chunkZ, ClaimChangeReader.ChangeType.REMOVE
                     ));
-                    pendingChanges.add(new PendingChange(
-                        LocalDateTime.now(), currOwner, newName, dimension, coords[0], coords[1],
-                        ClaimChangeReader.ChangeType.ADD
-                    ));
-                    offlineTransfers++;
                 }
-            }
-        }
-
-        // Check for new claims while offline
-        for (Map.Entry<ResourceKey<Level>, Map<Long, UUID>> dimEntry : chunkStateCache.entrySet()) {
-            ResourceKey<Level> dimension = dimEntry.getKey();
-            
-            // Skip suspect dimensions
-            if (suspectDimensions.contains(dimension)) {
-                continue;
-            }
-            
-            Map<Long, UUID> currDimCache = dimEntry.getValue();
-            Map<Long, UUID> prevDimCache = previousCache.getOrDefault(dimension, Collections.emptyMap());
-
-            for (Map.Entry<Long, UUID> chunkEntry : currDimCache.entrySet()) {
-                long chunkKey = chunkEntry.getKey();
-                if (!prevDimCache.containsKey(chunkKey)) {
-                    // New claim while offline
-                    UUID owner = chunkEntry.getValue();
-                    String teamName = getTeamName(owner);
-                    int[] coords = unpackChunkPos(chunkKey);
+                if (kind != ClaimStateDiff.REMOVE) {
+                    // New claim or new owner while offline
                     pendingChanges.add(new PendingChange(
-                        LocalDateTime.now(), owner, teamName, dimension, coords[0], coords[1],
-                        ClaimChangeReader.ChangeType.ADD
+                        now, currOwner, teamNames.computeIfAbsent(currOwner, this::getTeamName),
+                        dimension, chunkX, chunkZ, ClaimChangeReader.ChangeType.ADD
                     ));
-                    offlineAdds++;
+                    checkpoints.recordPut(dimension, chunkKey, currOwner);
+                } else {
+                    checkpoints.recordRemove(dimension, chunkKey);
                 }
-            }
+            });
         }
 
-        if (offlineAdds > 0 || offlineRemoves > 0 || offlineTransfers > 0) {
-            flushPendingChanges();
-        }
+        flushPendingChanges();
+        return true;
     }
 
     /**
      * Force flush pending changes to disk
+     * Blocks until the journal has written everything queued so far.
      */
     public void forceCheck() {
-        flushPendingChanges();
+        ingest.submitAndWait(() -> {
+            flushAllPendingChanges();
+            if (journal != null) {
+                journal.flush();
+            }
+        });
     }
 
     /**
-     * Write pending changes to CSV
+     * Hand pending changes, plus coalesced changes whose window has passed, to the background journal
      */
     private void flushPendingChanges() {
-        if (pendingChanges.isEmpty() || changesFile == null) {
+        queueNetChanges(coalescer.drainExpired(System.currentTimeMillis(),
+            ClaimTrackerConfig.getCoalesceWindowSeconds() * 1000));
+        writePendingChanges();
+    }
+
+    /**
+     * Flush everything, including changes still inside their coalescing window
+     */
+    private void flushAllPendingChanges() {
+        queueNetChanges(coalescer.drainAll());
+        writePendingChanges();
+    }
+
+    private void writePendingChanges() {
+        if (pendingChanges.isEmpty() || historyStore == null) {
             return;
         }
 
@@ -541,137 +720,112 @@ public class ClaimChangeTracker {
             pendingChanges.clear();
         }
 
-        try {
-            Files.createDirectories(changesFile.getParent());
-
-            boolean needsHeader = !Files.exists(changesFile) || Files.size(changesFile) == 0;
-
-            StringBuilder sb = new StringBuilder();
-            if (needsHeader) {
-                sb.append("timestamp,team_id,team_name,dimension,chunk_x,chunk_z,type\n");
-            }
+        if (journal == null || journal.getStore() != historyStore) {
+            closeJournal();
+            journal = new ClaimChangeJournal(historyStore);
+        }
+        journal.appendAll(toWrite);
 
+        // Keep the in-memory history in step with what was written
+        if (liveHistory != null) {
+            List<ClaimChangeReader.ClaimChange> rows = new ArrayList<>(toWrite.size());
             for (PendingChange change : toWrite) {
-                sb.append(change.timestamp.format(CSV_TIMESTAMP)).append(",");
-                sb.append(change.teamId).append(",");
-                sb.append(escapeCsv(change.teamName)).append(",");
-                sb.append(change.dimension.location().toString()).append(",");
-                sb.append(change.chunkX).append(",");
-                sb.append(change.chunkZ).append(",");
-                sb.append(change.type.name()).append("\n");
+                rows.add(new ClaimChangeReader.ClaimChange(change.timestamp(), change.teamId(), change.teamName(),
+                        change.dimension(), change.chunkX(), change.chunkZ(), change.type()));
             }
+            liveHistory.append(rows);
+            events.publishHistoryAppended();
+        }
+    }
 
-            Files.writeString(changesFile, sb.toString(), 
-                StandardOpenOption.CREATE, 
-                StandardOpenOption.APPEND);
-
-        } catch (IOException e) {
-            System.err.println("[ClaimListFTB] Failed to write changes: " + e.getMessage());
+    /**
+     * Write out everything queued and close the journal file
+     */
+    private void closeJournal() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
         }
     }
 
     /**
-     * Save current cache to disk for next session
-     * Creates the file even if empty (with just header) so the file exists
+     * Write a full checkpoint of the current cache for next session (in the background)
+     * The old CSV cache is removed once the snapshot has replaced it
      */
     private void saveCacheToFile() {
-        if (cacheFile == null) {
+        if (checkpoints == null) {
             return;
         }
 
-        try {
-            Files.createDirectories(cacheFile.getParent());
-
-            StringBuilder sb = new StringBuilder();
-            sb.append("dimension,chunk_x,chunk_z,team_id\n");
-
-            for (Map.Entry<ResourceKey<Level>, Map<Long, UUID>> dimEntry : chunkStateCache.entrySet()) {
-                String dimName = dimEntry.getKey().location().toString();
-                for (Map.Entry<Long, UUID> chunkEntry : dimEntry.getValue().entrySet()) {
-                    int[] coords = unpackChunkPos(chunkEntry.getKey());
-                    sb.append(dimName).append(",");
-                    sb.append(coords[0]).append(",");
-                    sb.append(coords[1]).append(",");
-                    sb.append(chunkEntry.getValue()).append("\n");
+        Path legacy = legacyCacheFile;
+        checkpoints.checkpoint(chunkStateCache.snapshot()).thenAccept(written -> {
+            if (written && legacy != null) {
+                try {
+                    Files.deleteIfExists(legacy);
+                } catch (IOException e) {
+                    System.err.println("[ClaimListFTB] Failed to remove legacy cache: " + e.getMessage());
                 }
             }
+        });
+    }
 
-            Files.writeString(cacheFile, sb.toString());
-
-        } catch (IOException e) {
-            System.err.println("[ClaimListFTB] Failed to save cache: " + e.getMessage());
+    /**
+     * Commit outstanding cache deltas and wait for checkpoint writes to finish
+     */
+    private void closeCheckpoints() {
+        if (checkpoints != null) {
+            checkpoints.close();
+            checkpoints = null;
         }
     }
-    
+
     /**
-     * Ensure cache file exists (creates empty file with header if needed)
-     * Called after initial sync to establish the file
+     * Rewrite this server's entry in the folder's server manifest (ingest thread)
      */
-    private void ensureCacheFileExists() {
-        if (cacheFile == null) {
+    private void updateServerManifest(int claims) {
+        ClaimHistoryStore store = historyStore;
+        if (store == null || currentServerId == null) {
             return;
         }
-        
-        try {
-            Files.createDirectories(cacheFile.getParent());
-            if (!Files.exists(cacheFile)) {
-                // Create empty cache file with just header
-                Files.writeString(cacheFile, "dimension,chunk_x,chunk_z,team_id\n");
-            }
-        } catch (IOException e) {
-            System.err.println("[ClaimListFTB] Failed to create cache file: " + e.getMessage());
-        }
+
+        Path folder = historyDir.getParent();
+        ClaimServerManifest.update(folder, new ClaimServerManifest.Entry(
+                currentServerId, currentServerName,
+                historyDir.getFileName().toString(),
+                cacheFile != null ? cacheFile.getFileName().toString() : "",
+                LocalDateTime.now(), store.getRowCount(), claims, true));
     }
 
     /**
      * Load previous session's cache from disk
+     * Falls back to a one-time import of the old CSV cache
      */
     private void loadPreviousCache() {
         previousCache.clear();
         previousCachePerDimension.clear();
         previousCacheSize = 0;
 
-        if (cacheFile == null || !Files.exists(cacheFile)) {
+        if (cacheFile == null) {
             return;
         }
 
-        try {
-            List<String> lines = Files.readAllLines(cacheFile);
-            if (lines.size() <= 1) return; // Only header or empty
-
-            for (int i = 1; i < lines.size(); i++) {
-                String line = lines.get(i).trim();
-                if (line.isEmpty()) continue;
-
-                String[] parts = line.split(",");
-                if (parts.length < 4) continue;
+        boolean loaded = checkpoints != null && checkpoints.load(previousCache);
+        if (!loaded && legacyCacheFile != null) {
+            previousCache.clear();
+            loaded = ClaimSnapshotFile.importLegacyCsv(legacyCacheFile, previousCache);
+        }
+        if (!loaded) {
+            previousCache.clear();
+            return;
+        }
 
-                try {
-                    String dimStr = parts[0];
-                    int chunkX = Integer.parseInt(parts[1]);
-                    int chunkZ = Integer.parseInt(parts[2]);
-                    UUID teamId = UUID.fromString(parts[3]);
-
-                    // Parse dimension
-                    ResourceKey<Level> dimension = ResourceKey.create(
-                        net.minecraft.core.registries.Registries.DIMENSION,
-                        net.minecraft.resources.ResourceLocation.parse(dimStr)
-                    );
-
-                    previousCache.computeIfAbsent(dimension, k -> new HashMap<>())
-                        .put(chunkPosToLong(chunkX, chunkZ), teamId);
-                    previousCacheSize++;
-                    
-                    // Track per-dimension count
-                    previousCachePerDimension.merge(dimension, 1, Integer::sum);
-
-                } catch (Exception e) {
-                    // Skip malformed lines
-                }
+        // Track per-dimension counts
+        for (ResourceKey<Level> dimension : previousCache.getDimensions()) {
+            int count = previousCache.size(dimension);
+            if (count > 0) {
+                previousCachePerDimension.put(dimension, count);
+                previousCacheSize += count;
             }
-
-        } catch (IOException e) {
-            System.err.println("[ClaimListFTB] Failed to load previous cache: " + e.getMessage());
         }
     }
 
@@ -680,25 +834,23 @@ public class ClaimChangeTracker {
      */
     private void setupFilePaths() {
         String shortId = currentServerId.toString().substring(0, 8);
+        String baseName = currentServerName + "-" + shortId;
         
+        Path folder;
         if (isSingleplayer) {
             // For singleplayer: store in world/data/claimlistftb/
             Path worldDataFolder = getSingleplayerWorldDataFolder();
-            if (worldDataFolder != null) {
-                changesFile = worldDataFolder.resolve(currentServerName + "-" + shortId + ".csv");
-                cacheFile = worldDataFolder.resolve(currentServerName + "-" + shortId + ".cache");
-            } else {
-                // Fallback to multiplayer folder if can't get world folder
-                Path baseFolder = getMultiplayerChangesFolder();
-                changesFile = baseFolder.resolve(currentServerName + "-" + shortId + ".csv");
-                cacheFile = baseFolder.resolve(currentServerName + "-" + shortId + ".cache");
-            }
+            // Fallback to multiplayer folder if can't get world folder
+            folder = worldDataFolder != null ? worldDataFolder : getMultiplayerChangesFolder();
         } else {
             // For multiplayer: use %APPDATA% on Windows or .minecraft on other systems
-            Path baseFolder = getMultiplayerChangesFolder();
-            changesFile = baseFolder.resolve(currentServerName + "-" + shortId + ".csv");
-            cacheFile = baseFolder.resolve(currentServerName + "-" + shortId + ".cache");
+            folder = getMultiplayerChangesFolder();
         }
+
+        historyDir = ClaimHistoryStore.directoryFor(folder, baseName);
+        legacyChangesFile = folder.resolve(baseName + ".csv");
+        cacheFile = folder.resolve(baseName + ".claims");
+        legacyCacheFile = folder.resolve(baseName + ".cache");
     }
     
     /**
@@ -745,13 +897,20 @@ public class ClaimChangeTracker {
      * Get the folder where change files are stored (for external access)
      */
     public Path getChangesFolder() {
-        if (changesFile != null) {
-            return changesFile.getParent();
+        if (historyDir != null) {
+            return historyDir.getParent();
         }
         // Fallback for when not connected
         return getMultiplayerChangesFolder();
     }
     
+    /**
+     * Get the current server's history, or null if not tracking
+     */
+    public ClaimHistoryStore getHistoryStore() {
+        return historyStore;
+    }
+
     /**
      * Get the cache file path (for external access)
      */
@@ -760,27 +919,11 @@ public class ClaimChangeTracker {
     }
 
     /**
-     * Get the team name for a given team ID
+     * Get the team name for a given team ID, as last resolved on the client thread.
+     * Called from the ingest thread, so it never asks FTB Teams itself.
      */
     public String getTeamName(UUID teamId) {
-        if (teamId == null) return "Unknown";
-
-        try {
-            return FTBTeamsAPI.api()
-                .getClientManager()
-                .getTeamByID(teamId)
-                .map(team -> {
-                    var nameComponent = team.getName();
-                    if (nameComponent != null) {
-                        String name = nameComponent.getString();
-                        return name != null && !name.isEmpty() ? name : teamId.toString().substring(0, 8);
-                    }
-                    return teamId.toString().substring(0, 8);
-                })
-                .orElse(teamId.toString().substring(0, 8));
-        } catch (Exception e) {
-            return teamId.toString().substring(0, 8);
-        }
+        return TeamInfoCache.knownName(teamId);
     }
 
     // === Utility methods ===
@@ -789,22 +932,10 @@ public class ClaimChangeTracker {
         return ((long) x & 0xFFFFFFFFL) | (((long) z & 0xFFFFFFFFL) << 32);
     }
 
-    private static int[] unpackChunkPos(long packed) {
-        return new int[] { (int) packed, (int) (packed >> 32) };
-    }
-
     private static String sanitizeFileName(String name) {
         return name.replaceAll("[^a-zA-Z0-9.-]", "_").toLowerCase();
     }
 
-    private static String escapeCsv(String value) {
-        if (value == null) return "";
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
-        }
-        return value;
-    }
-
     // === Getters for UI ===
 
     public UUID getCurrentServerId() {
@@ -840,21 +971,42 @@ public class ClaimChangeTracker {
      */
     public Map<UUID, List<CachedChunkClaim>> getAllCachedClaims() {
         Map<UUID, List<CachedChunkClaim>> result = new HashMap<>();
-        
-        for (Map.Entry<ResourceKey<Level>, Map<Long, UUID>> dimEntry : chunkStateCache.entrySet()) {
-            ResourceKey<Level> dimension = dimEntry.getKey();
-            
-            for (Map.Entry<Long, UUID> chunkEntry : dimEntry.getValue().entrySet()) {
-                UUID teamId = chunkEntry.getValue();
-                int[] coords = unpackChunkPos(chunkEntry.getKey());
-                
-                result.computeIfAbsent(teamId, k -> new ArrayList<>())
-                    .add(new CachedChunkClaim(dimension, coords[0], coords[1]));
+        ChunkStateStore.Snapshot snapshot = getClaimSnapshot();
+        UUID[] teamIds = snapshot.teamIds();
+
+        for (ChunkStateStore.DimensionSnapshot dim : snapshot.dimensions()) {
+            long[] chunkKeys = dim.chunkKeys();
+            int[] owners = dim.teamIndices();
+            for (int i = 0; i < chunkKeys.length; i++) {
+                result.computeIfAbsent(teamIds[owners[i]], k -> new ArrayList<>())
+                    .add(new CachedChunkClaim(dim.dimension(), (int) chunkKeys[i], (int) (chunkKeys[i] >> 32)));
             }
         }
         
         return result;
     }
+
+    /**
+     * Consistent copy of the tracker's claim cache, never showing half of a packet.
+     * Reused until the next batch is applied, so repeated reads are cheap.
+     */
+    public ChunkStateStore.Snapshot getClaimSnapshot() {
+        long version = cacheVersion;
+        CachedSnapshot cached = cachedSnapshot;
+        if (cached != null && cached.version() == version) {
+            return cached.snapshot();
+        }
+
+        ChunkStateStore.Snapshot snapshot;
+        synchronized (chunkStateCache) {
+            version = cacheVersion;
+            snapshot = chunkStateCache.snapshot();
+        }
+        cachedSnapshot = new CachedSnapshot(version, snapshot);
+        return snapshot;
+    }
+
+    private record CachedSnapshot(long version, ChunkStateStore.Snapshot snapshot) {}
     
     /**
      * Check if the tracker has cached claim data available
@@ -875,7 +1027,7 @@ public class ClaimChangeTracker {
     /**
      * Record for pending changes before writing to disk
      */
-    private record PendingChange(
+    record PendingChange(
         LocalDateTime timestamp,
         UUID teamId,
         String teamName,
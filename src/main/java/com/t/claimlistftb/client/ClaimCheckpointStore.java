@@ -0,0 +1,344 @@
+package com.t.claimlistftb.client;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Checkpoint-plus-delta persistence for the tracker's claim state.
+ * A full snapshot (ClaimSnapshotFile) is written occasionally; in between, individual
+ * claim/unclaim updates are appended to a small delta log next to it. Once the log grows
+ * past COMPACT_RATIO of the snapshot, a background compaction folds it into a new snapshot.
+ *
+ * Delta log layout: int magic, long base generation, then records:
+ *   DEFINE_DIM  short id, short length, UTF-8 dimension id
+ *   DEFINE_TEAM int id, long msb, long lsb
+ *   PUT         short dimId, long chunkKey, int teamId
+ *   REMOVE      short dimId, long chunkKey
+ * Ids are only valid after their DEFINE record; each append batch redefines what it uses.
+ * A log whose generation doesn't match the snapshot is stale and ignored.
+ *
+ * All file I/O happens on one background thread, in submission order.
+ */
+public class ClaimCheckpointStore {
+
+    private static final int DELTA_MAGIC = 0x434C4644; // "CLFD"
+    private static final int DELTA_HEADER_SIZE = 12;
+
+    private static final byte DEFINE_DIM = 1;
+    private static final byte DEFINE_TEAM = 2;
+    private static final byte PUT = 3;
+    private static final byte REMOVE = 4;
+
+    // Compact when the delta log reaches this fraction of the snapshot size
+    private static final double COMPACT_RATIO = 0.25;
+    // ...but don't bother for tiny files
+    private static final long MIN_COMPACT_BYTES = 64 * 1024;
+
+    private final Path snapshotFile;
+    private final Path deltaFile;
+    private final ExecutorService io;
+
+    // Deltas recorded since the last commit
+    private final List<Delta> pending = new ArrayList<>();
+
+    // Generation of the snapshot currently on disk (-1 = none). Only touched by the io thread after load.
+    private volatile long generation = -1;
+
+    public ClaimCheckpointStore(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+        this.deltaFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".delta");
+        this.io = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ClaimListFTB Checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Whether a snapshot was found on load (or has been written since).
+     * Deltas are only meaningful on top of one.
+     */
+    public boolean hasBase() {
+        return generation >= 0;
+    }
+
+    /**
+     * Load snapshot + deltas into the given store. Blocks; call before recording deltas.
+     */
+    public boolean load(ChunkStateStore target) {
+        long gen = ClaimSnapshotFile.readGeneration(snapshotFile);
+        if (gen < 0 || !ClaimSnapshotFile.read(snapshotFile, target)) {
+            generation = -1;
+            return false;
+        }
+        generation = gen;
+        replayDeltas(deltaFile, gen, target);
+        return true;
+    }
+
+    /**
+     * Record that a chunk is now owned by teamId.
+     */
+    public void recordPut(ResourceKey<Level> dimension, long chunkKey, UUID teamId) {
+        synchronized (pending) {
+            pending.add(new Delta(dimension, chunkKey, teamId));
+        }
+    }
+
+    /**
+     * Record that a chunk is no longer claimed.
+     */
+    public void recordRemove(ResourceKey<Level> dimension, long chunkKey) {
+        synchronized (pending) {
+            pending.add(new Delta(dimension, chunkKey, null));
+        }
+    }
+
+    public void discardPending() {
+        synchronized (pending) {
+            pending.clear();
+        }
+    }
+
+    /**
+     * Write a full snapshot in the background, replacing the old one and resetting the delta log.
+     * Anything recorded before this call is covered by the snapshot and dropped.
+     * The future completes with true once the snapshot is on disk.
+     */
+    public CompletableFuture<Boolean> checkpoint(ChunkStateStore.Snapshot snapshot) {
+        discardPending();
+        return CompletableFuture.supplyAsync(() -> writeCheckpoint(snapshot), io);
+    }
+
+    /**
+     * Append recorded deltas to the log in the background, compacting if it has grown too large.
+     */
+    public void commitDeltas() {
+        List<Delta> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) return;
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+
+        io.execute(() -> {
+            if (generation < 0) {
+                // No base to apply deltas to - the next checkpoint will cover this state
+                return;
+            }
+            appendDeltas(batch);
+            maybeCompact();
+        });
+    }
+
+    /**
+     * Commit remaining deltas and wait for all background writes to finish.
+     */
+    public void close() {
+        commitDeltas();
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(10, TimeUnit.SECONDS)) {
+                System.err.println("[ClaimListFTB] Timed out waiting for cache checkpoint writes");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // === Background work ===
+
+    private boolean writeCheckpoint(ChunkStateStore.Snapshot snapshot) {
+        long nextGeneration = Math.max(generation, 0) + 1;
+        try {
+            ClaimSnapshotFile.write(snapshotFile, snapshot, nextGeneration);
+            generation = nextGeneration;
+            resetDeltaLog();
+            return true;
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to save cache: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void resetDeltaLog() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(DELTA_HEADER_SIZE);
+        header.putInt(DELTA_MAGIC);
+        header.putLong(generation);
+        header.flip();
+        try (FileChannel channel = FileChannel.open(deltaFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header);
+        }
+    }
+
+    private void appendDeltas(List<Delta> batch) {
+        Map<ResourceKey<Level>, Integer> dimIds = new HashMap<>();
+        Map<UUID, Integer> teamIds = new HashMap<>();
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(4096, batch.size() * 48));
+
+        for (Delta delta : batch) {
+            Integer dimId = dimIds.get(delta.dimension());
+            if (dimId == null) {
+                dimId = dimIds.size();
+                dimIds.put(delta.dimension(), dimId);
+                byte[] name = ClaimDimensions.nameOf(delta.dimension()).getBytes(StandardCharsets.UTF_8);
+                buffer = ensureCapacity(buffer, 5 + name.length);
+                buffer.put(DEFINE_DIM).putShort((short) (int) dimId).putShort((short) name.length).put(name);
+            }
+
+            if (delta.teamId() == null) {
+                buffer = ensureCapacity(buffer, 11);
+                buffer.put(REMOVE).putShort((short) (int) dimId).putLong(delta.chunkKey());
+                continue;
+            }
+
+            Integer teamId = teamIds.get(delta.teamId());
+            if (teamId == null) {
+                teamId = teamIds.size();
+                teamIds.put(delta.teamId(), teamId);
+                buffer = ensureCapacity(buffer, 21);
+                buffer.put(DEFINE_TEAM).putInt(teamId)
+                        .putLong(delta.teamId().getMostSignificantBits())
+                        .putLong(delta.teamId().getLeastSignificantBits());
+            }
+            buffer = ensureCapacity(buffer, 15);
+            buffer.put(PUT).putShort((short) (int) dimId).putLong(delta.chunkKey()).putInt(teamId);
+        }
+        buffer.flip();
+
+        try {
+            if (!Files.exists(deltaFile) || Files.size(deltaFile) < DELTA_HEADER_SIZE) {
+                resetDeltaLog();
+            }
+            try (FileChannel channel = FileChannel.open(deltaFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to append cache deltas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fold the delta log into a fresh snapshot once it outgrows the ratio.
+     * Works purely from the files, so the live cache is never locked for it.
+     */
+    private void maybeCompact() {
+        try {
+            long deltaSize = Files.size(deltaFile);
+            long baseSize = Files.size(snapshotFile);
+            if (deltaSize < MIN_COMPACT_BYTES || deltaSize < baseSize * COMPACT_RATIO) {
+                return;
+            }
+
+            ChunkStateStore merged = new ChunkStateStore();
+            if (!load(merged)) {
+                return;
+            }
+            writeCheckpoint(merged.snapshot());
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to compact cache: " + e.getMessage());
+        }
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int needed) {
+        if (buffer.remaining() >= needed) {
+            return buffer;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    /**
+     * Apply a delta log on top of a loaded snapshot. Stops quietly at a torn final record.
+     */
+    private static void replayDeltas(Path deltaFile, long expectedGeneration, ChunkStateStore target) {
+        if (!Files.exists(deltaFile)) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(deltaFile, StandardOpenOption.READ)) {
+            if (channel.size() < DELTA_HEADER_SIZE) {
+                return;
+            }
+            // Read onto the heap: this log is truncated and the snapshot replaced later (compaction
+            // right after a replay), which Windows refuses while a mapping is still alive
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("delta log too large: " + size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+            buffer.flip();
+            if (buffer.getInt() != DELTA_MAGIC || buffer.getLong() != expectedGeneration) {
+                // Stale log from before the current snapshot
+                return;
+            }
+
+            Map<Integer, ResourceKey<Level>> dims = new HashMap<>();
+            Map<Integer, UUID> teams = new HashMap<>();
+
+            while (buffer.hasRemaining()) {
+                byte op = buffer.get();
+                switch (op) {
+                    case DEFINE_DIM -> {
+                        int id = buffer.getShort();
+                        byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                        buffer.get(name);
+                        // An unreadable name leaves the id undefined, so its entries are skipped
+                        ResourceKey<Level> dimension = ClaimDimensions.parse(new String(name, StandardCharsets.UTF_8));
+                        if (dimension != null) {
+                            dims.put(id, dimension);
+                        }
+                    }
+                    case DEFINE_TEAM -> {
+                        int id = buffer.getInt();
+                        teams.put(id, new UUID(buffer.getLong(), buffer.getLong()));
+                    }
+                    case PUT -> {
+                        ResourceKey<Level> dim = dims.get((int) buffer.getShort());
+                        long chunkKey = buffer.getLong();
+                        UUID teamId = teams.get(buffer.getInt());
+                        if (dim != null && teamId != null) {
+                            target.put(dim, chunkKey, teamId);
+                        }
+                    }
+                    case REMOVE -> {
+                        ResourceKey<Level> dim = dims.get((int) buffer.getShort());
+                        long chunkKey = buffer.getLong();
+                        if (dim != null) {
+                            target.remove(dim, chunkKey);
+                        }
+                    }
+                    default -> {
+                        System.err.println("[ClaimListFTB] Corrupt cache delta log, ignoring the rest");
+                        return;
+                    }
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            // Torn write at the end of the log - everything before it was applied
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("[ClaimListFTB] Failed to read cache deltas: " + e.getMessage());
+        }
+    }
+
+    private record Delta(ResourceKey<Level> dimension, long chunkKey, UUID teamId) {}
+}
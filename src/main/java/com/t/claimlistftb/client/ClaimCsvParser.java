@@ -0,0 +1,464 @@
+package com.t.claimlistftb.client;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Streaming parser for claim change CSV files.
+ * Scans records straight out of a reusable char buffer with RFC-4180 quoting (quoted fields may
+ * contain commas, doubled quotes and line breaks), and parses timestamps, UUIDs and numbers from
+ * the buffer without building intermediate Strings. Rows that don't parse are skipped and counted.
+ * Not thread-safe.
+ */
+public class ClaimCsvParser implements Closeable {
+
+    private static final int FIELDS = 7;
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final char[] HEADER_FIRST_FIELD = "timestamp".toCharArray();
+    private static final ClaimChangeReader.ChangeType[] TYPES = ClaimChangeReader.ChangeType.values();
+    private static final char[][] TYPE_NAMES = new char[TYPES.length][];
+
+    static {
+        for (int i = 0; i < TYPES.length; i++) {
+            TYPE_NAMES[i] = TYPES[i].name().toCharArray();
+        }
+    }
+
+    private final Reader in;
+    private char[] buf = new char[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private boolean eof;
+
+    // Current record; all indices point into buf and move when it is compacted
+    private int recordStart;
+    private int start;
+    private int write;
+    private final int[] fieldStart = new int[FIELDS];
+    private final int[] fieldEnd = new int[FIELDS];
+    private int fieldCount;
+    private boolean tooManyFields;
+    private boolean badQuoting;
+
+    private boolean firstRecord = true;
+    private int rows;
+    private int malformedRows;
+
+    // Consecutive rows usually share these, so the previous row's objects are reused when the text matches
+    private UUID lastTeamId;
+    private String lastTeamName = "";
+    private String lastDimensionText;
+    private ResourceKey<Level> lastDimension;
+
+    public ClaimCsvParser(Reader in) {
+        this.in = in;
+    }
+
+    public static ClaimCsvParser open(Path file) throws IOException {
+        return new ClaimCsvParser(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a single CSV line (no header).
+     * @return the change, or null if the line is malformed
+     */
+    public static ClaimChangeReader.ClaimChange parseLine(String line) {
+        ClaimCsvParser parser = new ClaimCsvParser(new StringReader(line));
+        parser.firstRecord = false;
+        try {
+            return parser.next();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read the next well-formed change, skipping the header, blank lines and malformed rows.
+     * @return the change, or null at end of input
+     */
+    public ClaimChangeReader.ClaimChange next() throws IOException {
+        while (readRecord()) {
+            boolean header = firstRecord && fieldCount > 0
+                    && equalsChars(fieldStart[0], fieldEnd[0], HEADER_FIRST_FIELD);
+            firstRecord = false;
+
+            if (header || (fieldCount == 1 && fieldStart[0] == fieldEnd[0])) {
+                continue;
+            }
+
+            ClaimChangeReader.ClaimChange change = parseRecord();
+            if (change != null) {
+                rows++;
+                return change;
+            }
+            malformedRows++;
+        }
+        return null;
+    }
+
+    /**
+     * Read the next record as plain strings, for the folder's other CSV files (up to 7 columns,
+     * e.g. servers.csv). Nothing is skipped or interpreted; the caller handles the header.
+     * A record with too many fields or broken quoting comes back empty and is counted as malformed.
+     * @return the fields, or null at end of input
+     */
+    public String[] nextFields() throws IOException {
+        if (!readRecord()) {
+            return null;
+        }
+        firstRecord = false;
+        if (tooManyFields || badQuoting) {
+            malformedRows++;
+            return new String[0];
+        }
+
+        String[] fields = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            fields[i] = new String(buf, fieldStart[i], fieldEnd[i] - fieldStart[i]);
+        }
+        return fields;
+    }
+
+    /**
+     * Well-formed rows returned so far.
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Rows skipped because they couldn't be parsed.
+     */
+    public int getMalformedRowCount() {
+        return malformedRows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // === Record scanning ===
+
+    /**
+     * Split the next record into field spans. Quoted fields are unescaped in place.
+     * @return false at end of input
+     */
+    private boolean readRecord() throws IOException {
+        fieldCount = 0;
+        tooManyFields = false;
+        badQuoting = false;
+        recordStart = pos;
+
+        int c = read();
+        if (c == -1) {
+            return false;
+        }
+
+        while (true) {
+            int end;
+
+            if (c == '"') {
+                start = pos;
+                write = pos;
+                while (true) {
+                    c = read();
+                    if (c == -1) {
+                        // Unterminated quote
+                        badQuoting = true;
+                        break;
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            break;
+                        }
+                    }
+                    buf[write++] = (char) c;
+                }
+                end = write;
+
+                // Anything between the closing quote and the delimiter makes the row malformed
+                while (c != -1 && c != ',' && c != '\n' && c != '\r') {
+                    badQuoting = true;
+                    c = read();
+                }
+            } else {
+                start = c == -1 ? pos : pos - 1;
+                while (c != -1 && c != ',' && c != '\n' && c != '\r') {
+                    c = read();
+                }
+                end = c == -1 ? pos : pos - 1;
+            }
+
+            if (fieldCount < FIELDS) {
+                fieldStart[fieldCount] = start;
+                fieldEnd[fieldCount] = end;
+                fieldCount++;
+            } else {
+                tooManyFields = true;
+            }
+
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c == '\r') {
+                // Accept \r\n as well as \n
+                c = read();
+                if (c != '\n' && c != -1) {
+                    pos--;
+                }
+            }
+            return true;
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos >= limit && !fill()) {
+            return -1;
+        }
+        return buf[pos++];
+    }
+
+    /**
+     * Load more input, keeping the current record at the start of the buffer (growing it for huge records).
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+
+        if (recordStart > 0) {
+            int shift = recordStart;
+            System.arraycopy(buf, shift, buf, 0, limit - shift);
+            pos -= shift;
+            limit -= shift;
+            start -= shift;
+            write -= shift;
+            recordStart = 0;
+            for (int i = 0; i < fieldCount; i++) {
+                fieldStart[i] -= shift;
+                fieldEnd[i] -= shift;
+            }
+        } else if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+
+    // === Field parsing ===
+
+    private ClaimChangeReader.ClaimChange parseRecord() {
+        if (fieldCount != FIELDS || tooManyFields || badQuoting) {
+            return null;
+        }
+
+        try {
+            LocalDateTime timestamp = parseTimestamp(fieldStart[0], fieldEnd[0]);
+            if (timestamp == null) return null;
+
+            UUID teamId;
+            if (fieldStart[1] == fieldEnd[1]) {
+                teamId = null;
+            } else {
+                teamId = parseUuid(fieldStart[1], fieldEnd[1]);
+                if (teamId == null) return null;
+            }
+
+            String teamName = parseTeamName(teamId, fieldStart[2], fieldEnd[2]);
+
+            ResourceKey<Level> dimension = parseDimension(fieldStart[3], fieldEnd[3]);
+            if (dimension == null) return null;
+
+            long chunkX = parseInt(fieldStart[4], fieldEnd[4]);
+            long chunkZ = parseInt(fieldStart[5], fieldEnd[5]);
+            if (chunkX == Long.MIN_VALUE || chunkZ == Long.MIN_VALUE) return null;
+
+            ClaimChangeReader.ChangeType type = parseType(fieldStart[6], fieldEnd[6]);
+            if (type == null) return null;
+
+            return new ClaimChangeReader.ClaimChange(timestamp, teamId, teamName, dimension,
+                    (int) chunkX, (int) chunkZ, type);
+        } catch (DateTimeException e) {
+            // Out-of-range date or time fields
+            return null;
+        }
+    }
+
+    /**
+     * ISO local date-time: yyyy-MM-ddTHH:mm[:ss[.fraction]].
+     */
+    private LocalDateTime parseTimestamp(int start, int end) {
+        int len = end - start;
+        if (len < 16
+                || buf[start + 4] != '-' || buf[start + 7] != '-' || buf[start + 10] != 'T'
+                || buf[start + 13] != ':') {
+            return null;
+        }
+
+        int year = digits(start, 4);
+        int month = digits(start + 5, 2);
+        int day = digits(start + 8, 2);
+        int hour = digits(start + 11, 2);
+        int minute = digits(start + 14, 2);
+        if ((year | month | day | hour | minute) < 0) return null;
+
+        int second = 0;
+        int nano = 0;
+        int p = start + 16;
+        if (p < end) {
+            if (buf[p] != ':' || p + 3 > end) return null;
+            second = digits(p + 1, 2);
+            if (second < 0) return null;
+            p += 3;
+
+            if (p < end) {
+                if (buf[p] != '.' || p + 1 == end || end - p - 1 > 9) return null;
+                int scale = 100_000_000;
+                for (p++; p < end; p++) {
+                    int d = buf[p] - '0';
+                    if (d < 0 || d > 9) return null;
+                    nano += d * scale;
+                    scale /= 10;
+                }
+            }
+        }
+
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+    }
+
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) return -1;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /**
+     * Canonical 8-4-4-4-12 hex form.
+     */
+    private UUID parseUuid(int start, int end) {
+        if (end - start != 36
+                || buf[start + 8] != '-' || buf[start + 13] != '-'
+                || buf[start + 18] != '-' || buf[start + 23] != '-') {
+            return null;
+        }
+
+        long msb = 0;
+        long lsb = 0;
+        int nibbles = 0;
+        for (int i = start; i < end; i++) {
+            int offset = i - start;
+            if (offset == 8 || offset == 13 || offset == 18 || offset == 23) continue;
+
+            // Every other position must be an ASCII hex digit; a stray dash makes the row malformed
+            char ch = buf[i];
+            int h = ch < 128 ? Character.digit(ch, 16) : -1;
+            if (h < 0) return null;
+            if (nibbles < 16) {
+                msb = (msb << 4) | h;
+            } else {
+                lsb = (lsb << 4) | h;
+            }
+            nibbles++;
+        }
+
+        if (lastTeamId != null
+                && lastTeamId.getMostSignificantBits() == msb && lastTeamId.getLeastSignificantBits() == lsb) {
+            return lastTeamId;
+        }
+        return new UUID(msb, lsb);
+    }
+
+    private String parseTeamName(UUID teamId, int start, int end) {
+        if (teamId != null && teamId == lastTeamId && equalsChars(start, end, lastTeamName)) {
+            return lastTeamName;
+        }
+        String name = start == end ? "" : new String(buf, start, end - start);
+        lastTeamId = teamId;
+        lastTeamName = name;
+        return name;
+    }
+
+    private ResourceKey<Level> parseDimension(int start, int end) {
+        if (lastDimensionText != null && equalsChars(start, end, lastDimensionText)) {
+            return lastDimension;
+        }
+        String text = new String(buf, start, end - start);
+        ResourceKey<Level> dimension = ClaimDimensions.parse(text);
+        if (dimension != null) {
+            lastDimensionText = text;
+            lastDimension = dimension;
+        }
+        return dimension;
+    }
+
+    /**
+     * @return the value, or Long.MIN_VALUE if the field isn't a valid int
+     */
+    private long parseInt(int start, int end) {
+        if (start == end) return Long.MIN_VALUE;
+
+        boolean negative = buf[start] == '-';
+        int i = negative || buf[start] == '+' ? start + 1 : start;
+        if (i == end || end - i > 10) return Long.MIN_VALUE;
+
+        long value = 0;
+        for (; i < end; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) return Long.MIN_VALUE;
+            value = value * 10 + d;
+        }
+        value = negative ? -value : value;
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+    }
+
+    private ClaimChangeReader.ChangeType parseType(int start, int end) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (equalsChars(start, end, TYPE_NAMES[i])) {
+                return TYPES[i];
+            }
+        }
+        return null;
+    }
+
+    private boolean equalsChars(int start, int end, char[] expected) {
+        if (end - start != expected.length) return false;
+        for (int i = 0; i < expected.length; i++) {
+            if (buf[start + i] != expected[i]) return false;
+        }
+        return true;
+    }
+
+    private boolean equalsChars(int start, int end, String expected) {
+        if (end - start != expected.length()) return false;
+        for (int i = 0; i < expected.length(); i++) {
+            if (buf[start + i] != expected.charAt(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,120 @@
+package com.t.claimlistftb.client;
+
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.Level;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide intern table for dimensions.
+ * Every dimension string read from history, caches and snapshots maps to one canonical ResourceKey
+ * and a compact int id (0 is "no dimension"), so parsing a row is a single hash lookup and modded
+ * dimensions keep their own key instead of being read back as the overworld. Ids only live for the
+ * session; files always store the dimension's name.
+ */
+public final class ClaimDimensions {
+
+    // Every spelling seen so far (exact text) -> canonical key
+    private static final Map<String, ResourceKey<Level>> BY_NAME = new ConcurrentHashMap<>();
+    private static final Map<ResourceKey<Level>, Integer> IDS = new ConcurrentHashMap<>();
+
+    // Indexed by id; replaced (never modified) when a dimension is added
+    private static volatile ResourceKey<?>[] keys = new ResourceKey<?>[1];
+    private static volatile String[] names = new String[1];
+
+    static {
+        idOf(Level.OVERWORLD);
+        idOf(Level.NETHER);
+        idOf(Level.END);
+    }
+
+    private ClaimDimensions() {}
+
+    /**
+     * Canonical key for a dimension id such as "minecraft:the_nether" or "mymod:mining".
+     * Old short forms ("overworld", "the_nether") and any letter case are accepted.
+     * @return null if the text isn't a valid dimension id
+     */
+    public static ResourceKey<Level> parse(String text) {
+        ResourceKey<Level> key = BY_NAME.get(text);
+        if (key != null) {
+            return key;
+        }
+
+        ResourceLocation location = ResourceLocation.tryParse(text.trim().toLowerCase(Locale.ROOT));
+        if (location == null) {
+            return null;
+        }
+        key = ResourceKey.create(Registries.DIMENSION, location);
+        idOf(key);
+        BY_NAME.put(text, key);
+        return key;
+    }
+
+    /**
+     * Id of a dimension, adding it if it hasn't been seen yet. Ids start at 1.
+     */
+    public static int idOf(ResourceKey<Level> dimension) {
+        Integer id = IDS.get(dimension);
+        return id != null ? id : register(dimension);
+    }
+
+    /**
+     * Id of a dimension, or -1 if it hasn't been seen.
+     */
+    public static int find(ResourceKey<Level> dimension) {
+        Integer id = dimension != null ? IDS.get(dimension) : null;
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Dimension for an id, or null for 0 or an unknown id.
+     */
+    @SuppressWarnings("unchecked")
+    public static ResourceKey<Level> byId(int id) {
+        ResourceKey<?>[] current = keys;
+        return id > 0 && id < current.length ? (ResourceKey<Level>) current[id] : null;
+    }
+
+    /**
+     * One more than the highest id handed out so far.
+     */
+    public static int count() {
+        return keys.length;
+    }
+
+    /**
+     * The dimension's id as written to files, e.g. "minecraft:overworld". Built once per dimension.
+     */
+    public static String nameOf(ResourceKey<Level> dimension) {
+        int id = idOf(dimension);
+        String[] current = names;
+        return id < current.length ? current[id] : dimension.location().toString();
+    }
+
+    private static synchronized int register(ResourceKey<Level> dimension) {
+        Integer existing = IDS.get(dimension);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = keys.length;
+        String name = dimension.location().toString();
+        ResourceKey<?>[] grownKeys = Arrays.copyOf(keys, id + 1);
+        String[] grownNames = Arrays.copyOf(names, id + 1);
+        grownKeys[id] = dimension;
+        grownNames[id] = name;
+
+        // Publish the arrays before the id, so anyone who can see the id can look it up
+        names = grownNames;
+        keys = grownKeys;
+        IDS.put(dimension, id);
+        BY_NAME.putIfAbsent(name, dimension);
+        return id;
+    }
+}
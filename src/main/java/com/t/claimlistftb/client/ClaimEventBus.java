@@ -0,0 +1,156 @@
+package com.t.claimlistftb.client;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Collects tracker events from any thread and delivers them to listeners once per client tick.
+ * Events for the same chunk within a tick are coalesced into one net change (claim then unclaim
+ * cancels out), and repeated renames of a team collapse to first-old/last-new.
+ */
+public class ClaimEventBus {
+
+    /**
+     * A chunk's owner changed. previousOwner is null for a new claim, newOwner is null for an unclaim.
+     */
+    public record ClaimEvent(
+            ResourceKey<Level> dimension,
+            int chunkX,
+            int chunkZ,
+            UUID previousOwner,
+            UUID newOwner,
+            LocalDateTime timestamp
+    ) {}
+
+    public record TeamRename(UUID teamId, String oldName, String newName) {}
+
+    private record ChunkRef(ResourceKey<Level> dimension, int chunkX, int chunkZ) {}
+
+    private final List<ClaimChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Pending events, guarded by this
+    private Map<ChunkRef, ClaimEvent> pendingClaims = new LinkedHashMap<>();
+    private Map<UUID, TeamRename> pendingRenames = new LinkedHashMap<>();
+    private boolean pendingSyncCompleted = false;
+    private boolean pendingHistoryAppended = false;
+    private volatile boolean hasPending = false;
+
+    public void addListener(ClaimChangeListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removeListener(ClaimChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized void publishClaim(ResourceKey<Level> dimension, int chunkX, int chunkZ,
+                                          UUID previousOwner, UUID newOwner, LocalDateTime timestamp) {
+        ChunkRef ref = new ChunkRef(dimension, chunkX, chunkZ);
+        ClaimEvent earlier = pendingClaims.get(ref);
+        UUID from = earlier != null ? earlier.previousOwner() : previousOwner;
+
+        if (Objects.equals(from, newOwner)) {
+            // Back where it started this tick
+            pendingClaims.remove(ref);
+        } else {
+            pendingClaims.put(ref, new ClaimEvent(dimension, chunkX, chunkZ, from, newOwner, timestamp));
+        }
+        hasPending = true;
+    }
+
+    public synchronized void publishSyncCompleted() {
+        pendingSyncCompleted = true;
+        hasPending = true;
+    }
+
+    public synchronized void publishHistoryAppended() {
+        pendingHistoryAppended = true;
+        hasPending = true;
+    }
+
+    public synchronized void publishTeamRenamed(UUID teamId, String oldName, String newName) {
+        TeamRename earlier = pendingRenames.get(teamId);
+        String from = earlier != null ? earlier.oldName() : oldName;
+
+        if (Objects.equals(from, newName)) {
+            pendingRenames.remove(teamId);
+        } else {
+            pendingRenames.put(teamId, new TeamRename(teamId, from, newName));
+        }
+        hasPending = true;
+    }
+
+    /**
+     * Drop anything not yet delivered (e.g. when leaving a server).
+     */
+    public synchronized void clearPending() {
+        pendingClaims = new LinkedHashMap<>();
+        pendingRenames = new LinkedHashMap<>();
+        pendingSyncCompleted = false;
+        pendingHistoryAppended = false;
+        hasPending = false;
+    }
+
+    /**
+     * Deliver this tick's events. Call on the client thread.
+     */
+    public void dispatch() {
+        if (!hasPending) {
+            return;
+        }
+
+        Map<ChunkRef, ClaimEvent> claims;
+        Map<UUID, TeamRename> renames;
+        boolean syncCompleted;
+        boolean historyAppended;
+        synchronized (this) {
+            claims = pendingClaims;
+            renames = pendingRenames;
+            syncCompleted = pendingSyncCompleted;
+            historyAppended = pendingHistoryAppended;
+            pendingClaims = new LinkedHashMap<>();
+            pendingRenames = new LinkedHashMap<>();
+            pendingSyncCompleted = false;
+            pendingHistoryAppended = false;
+            hasPending = false;
+        }
+
+        List<ClaimEvent> added = new ArrayList<>();
+        List<ClaimEvent> removed = new ArrayList<>();
+        List<ClaimEvent> transferred = new ArrayList<>();
+        for (ClaimEvent event : claims.values()) {
+            if (event.previousOwner() == null) {
+                added.add(event);
+            } else if (event.newOwner() == null) {
+                removed.add(event);
+            } else {
+                transferred.add(event);
+            }
+        }
+        List<TeamRename> renameList = new ArrayList<>(renames.values());
+
+        // Each callback on its own, so one that throws doesn't cost the listener the others
+        for (ClaimChangeListener listener : listeners) {
+            if (!added.isEmpty()) deliver(() -> listener.onClaimsAdded(added));
+            if (!removed.isEmpty()) deliver(() -> listener.onClaimsRemoved(removed));
+            if (!transferred.isEmpty()) deliver(() -> listener.onClaimsTransferred(transferred));
+            if (!renameList.isEmpty()) deliver(() -> listener.onTeamsRenamed(renameList));
+            if (syncCompleted) deliver(listener::onSyncCompleted);
+            if (historyAppended) deliver(listener::onHistoryAppended);
+        }
+    }
+
+    private static void deliver(Runnable callback) {
+        try {
+            callback.run();
+        } catch (Exception e) {
+            System.err.println("[ClaimListFTB] Claim change listener failed: " + e.getMessage());
+        }
+    }
+}
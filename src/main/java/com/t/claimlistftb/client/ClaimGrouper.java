@@ -234,7 +234,7 @@ public class ClaimGrouper {
          * Get the dimension name as a string.
          */
         public String getDimensionName() {
-            return dimension.location().toString();
+            return ClaimDimensions.nameOf(dimension);
         }
     }
 }
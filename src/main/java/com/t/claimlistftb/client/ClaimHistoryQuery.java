@@ -0,0 +1,192 @@
+package com.t.claimlistftb.client;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Which claim changes to read: a time range, teams, dimensions, change types and a chunk box.
+ * Null means "no restriction" for every part. Queries are immutable; the with* methods return a copy.
+ *
+ * The same query runs against the files (stream) or an in-memory view (select), and each pushes
+ * the predicates as far down as the storage allows before falling back to checking rows:
+ * - files: only segments overlapping the time range are opened, and compressed segments only
+ *   inflate blocks in range
+ * - views: the time range is two binary searches, a box in one dimension goes through the region
+ *   index, and the rest is a scan over the columns of what's left
+ */
+public record ClaimHistoryQuery(LocalDateTime from, LocalDateTime to, Set<UUID> teams,
+                                Set<ResourceKey<Level>> dimensions, Set<ClaimChangeReader.ChangeType> types,
+                                ChunkBox box) {
+
+    public static final ClaimHistoryQuery ALL = new ClaimHistoryQuery(null, null, null, null, null, null);
+
+    // Boxes wider than this skip the region index; probing that many regions costs more than a scan
+    private static final int MAX_INDEXED_BOX = 1 << 16;
+
+    /**
+     * Chunks with minX <= x <= maxX and minZ <= z <= maxZ.
+     */
+    public record ChunkBox(int minX, int minZ, int maxX, int maxZ) {
+        public static ChunkBox around(int chunkX, int chunkZ, int radius) {
+            return new ChunkBox(chunkX - radius, chunkZ - radius, chunkX + radius, chunkZ + radius);
+        }
+
+        public boolean contains(int chunkX, int chunkZ) {
+            return chunkX >= minX && chunkX <= maxX && chunkZ >= minZ && chunkZ <= maxZ;
+        }
+    }
+
+    /**
+     * Only changes with from <= timestamp < to. Null bounds are open.
+     */
+    public ClaimHistoryQuery between(LocalDateTime from, LocalDateTime to) {
+        return new ClaimHistoryQuery(from, to, teams, dimensions, types, box);
+    }
+
+    public ClaimHistoryQuery withTeams(Collection<UUID> teams) {
+        return new ClaimHistoryQuery(from, to, teams != null ? Set.copyOf(teams) : null, dimensions, types, box);
+    }
+
+    public ClaimHistoryQuery withDimensions(Collection<ResourceKey<Level>> dimensions) {
+        return new ClaimHistoryQuery(from, to, teams, dimensions != null ? Set.copyOf(dimensions) : null, types, box);
+    }
+
+    public ClaimHistoryQuery withTypes(ClaimChangeReader.ChangeType... types) {
+        return new ClaimHistoryQuery(from, to, teams, dimensions,
+                types.length > 0 ? EnumSet.copyOf(Arrays.asList(types)) : null, box);
+    }
+
+    public ClaimHistoryQuery within(ChunkBox box) {
+        return new ClaimHistoryQuery(from, to, teams, dimensions, types, box);
+    }
+
+    /**
+     * Whether a single change matches every part of the query.
+     */
+    public boolean matches(ClaimChangeReader.ClaimChange change) {
+        return (from == null || !change.timestamp().isBefore(from))
+                && (to == null || change.timestamp().isBefore(to))
+                && (teams == null || (change.teamId() != null && teams.contains(change.teamId())))
+                && (dimensions == null || dimensions.contains(change.dimension()))
+                && (types == null || types.contains(change.type()))
+                && (box == null || box.contains(change.chunkX(), change.chunkZ()));
+    }
+
+    /**
+     * The matching changes in a list, in their original order.
+     */
+    public List<ClaimChangeReader.ClaimChange> filter(List<ClaimChangeReader.ClaimChange> changes) {
+        List<ClaimChangeReader.ClaimChange> result = new ArrayList<>(changes.size());
+        for (ClaimChangeReader.ClaimChange change : changes) {
+            if (matches(change)) {
+                result.add(change);
+            }
+        }
+        return result;
+    }
+
+    // === Files ===
+
+    /**
+     * Matching changes from a server's files. Segments are opened one at a time as the stream is
+     * consumed, oldest first, rows in file order.
+     */
+    public Stream<ClaimChangeReader.ClaimChange> stream(ClaimHistoryStore store) {
+        return store.segmentsBetween(from, to).stream()
+                .flatMap(segment -> store.readSegment(segment.day(), from, to).stream())
+                .filter(this::matches);
+    }
+
+    /**
+     * All matching changes from a server's files (see stream).
+     */
+    public List<ClaimChangeReader.ClaimChange> list(ClaimHistoryStore store) {
+        List<ClaimChangeReader.ClaimChange> result = new ArrayList<>();
+        stream(store).forEach(result::add);
+        return result;
+    }
+
+    /**
+     * As list, reporting each segment's size (raw CSV bytes) once it has been read, for progress.
+     */
+    public List<ClaimChangeReader.ClaimChange> list(ClaimHistoryStore store, LongConsumer progress) {
+        List<ClaimChangeReader.ClaimChange> result = new ArrayList<>();
+        for (ClaimHistoryStore.Segment segment : store.segmentsBetween(from, to)) {
+            for (ClaimChangeReader.ClaimChange change : store.readSegment(segment.day(), from, to)) {
+                if (matches(change)) {
+                    result.add(change);
+                }
+            }
+            progress.accept(segment.bytes());
+        }
+        return result;
+    }
+
+    // === In memory ===
+
+    /**
+     * The matching rows of a view, still oldest first.
+     */
+    public ClaimChangeTable.View select(ClaimChangeTable.View view) {
+        // Time: views are in time order, so the range is a slice
+        int start = from != null ? view.indexOfTime(ClaimChangeTable.toMillis(from)) : 0;
+        int end = to != null ? view.indexOfTime(ClaimChangeTable.toMillis(to)) : view.size();
+        ClaimChangeTable.View narrowed = start == 0 && end == view.size() ? view : view.range(start, Math.max(start, end));
+
+        // A box in one dimension: only the region buckets it overlaps
+        boolean boxDone = false;
+        boolean dimensionsDone = false;
+        if (box != null && dimensions != null && dimensions.size() == 1 && !narrowed.isEmpty()) {
+            long width = (long) box.maxX() - box.minX();
+            long height = (long) box.maxZ() - box.minZ();
+            if (width >= 0 && height >= 0 && width <= MAX_INDEXED_BOX && height <= MAX_INDEXED_BOX) {
+                int dimensionIndex = narrowed.dimensionIndexOf(dimensions.iterator().next());
+                if (dimensionIndex < 0) {
+                    return ClaimChangeTable.View.EMPTY;
+                }
+                int centerX = (int) (((long) box.minX() + box.maxX()) >> 1);
+                int centerZ = (int) (((long) box.minZ() + box.maxZ()) >> 1);
+                int radius = (int) Math.max(Math.max(box.maxX() - centerX, centerX - box.minX()),
+                        Math.max(box.maxZ() - centerZ, centerZ - box.minZ()));
+                narrowed = narrowed.near(dimensionIndex, centerX, centerZ, radius);
+                dimensionsDone = true;
+                boxDone = ChunkBox.around(centerX, centerZ, radius).equals(box);
+            }
+        }
+
+        if (teams == null && (dimensions == null || dimensionsDone) && types == null && (box == null || boxDone)) {
+            return narrowed;
+        }
+
+        // The rest is a pass over the columns, with team and dimension checks as dictionary lookups
+        boolean[] teamMask = teams != null ? new boolean[narrowed.teamCount()] : null;
+        if (teamMask != null) {
+            for (int team = 1; team < teamMask.length; team++) {
+                teamMask[team] = teams.contains(narrowed.teamIdAt(team));
+            }
+        }
+        boolean[] dimensionMask = dimensions != null && !dimensionsDone ? new boolean[narrowed.dimensionCount()] : null;
+        if (dimensionMask != null) {
+            for (int dimension = 1; dimension < dimensionMask.length; dimension++) {
+                dimensionMask[dimension] = dimensions.contains(narrowed.dimensionAt(dimension));
+            }
+        }
+        ChunkBox checkBox = boxDone ? null : box;
+
+        int[] positions = new int[narrowed.size()];
+        int count = 0;
+        for (int i = 0; i < narrowed.size(); i++) {
+            if (teamMask != null && !teamMask[narrowed.teamIndex(i)]) continue;
+            if (dimensionMask != null && !dimensionMask[narrowed.dimensionIndex(i)]) continue;
+            if (types != null && !types.contains(narrowed.type(i))) continue;
+            if (checkBox != null && !checkBox.contains(narrowed.chunkX(i), narrowed.chunkZ(i))) continue;
+            positions[count++] = i;
+        }
+        return count == narrowed.size() ? narrowed : narrowed.select(Arrays.copyOf(positions, count));
+    }
+}
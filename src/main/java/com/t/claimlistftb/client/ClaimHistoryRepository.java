@@ -0,0 +1,242 @@
+package com.t.claimlistftb.client;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide in-memory claim change history, one ServerHistory per server.
+ * A server's segments are read once and kept for the rest of the session: the tracker appends the
+ * connected server's changes as it hands them to the journal, and screens read immutable views,
+ * so reopening the history screen doesn't touch the disk.
+ */
+public class ClaimHistoryRepository {
+
+    private static final ClaimHistoryRepository INSTANCE = new ClaimHistoryRepository();
+
+    private final Map<UUID, ServerHistory> servers = new ConcurrentHashMap<>();
+
+    public static ClaimHistoryRepository getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get a server's history, opening its store the first time it is asked for.
+     * The opener runs inside computeIfAbsent, so concurrent callers (a loader and a screen, say)
+     * wait for one open rather than each opening, and maybe migrating, the same directory.
+     * @return null if the server has no history (opener returned null; nothing is cached)
+     */
+    public ServerHistory get(UUID serverId, Supplier<ClaimHistoryStore> opener) {
+        return servers.computeIfAbsent(serverId, id -> {
+            ClaimHistoryStore store = opener.get();
+            return store != null ? new ServerHistory(store) : null;
+        });
+    }
+
+    /**
+     * Make a server's history live: the tracker is connected and will append to it directly.
+     */
+    public ServerHistory attach(UUID serverId, ClaimHistoryStore store) {
+        ServerHistory history = servers.computeIfAbsent(serverId, id -> new ServerHistory(store));
+        history.attach(store);
+        return history;
+    }
+
+    /**
+     * The tracker disconnected; further changes can only come from the files.
+     */
+    public void detach(UUID serverId) {
+        ServerHistory history = servers.get(serverId);
+        if (history != null) {
+            history.detach();
+        }
+    }
+
+    /**
+     * One server's changes as a ClaimChangeTable, sorted oldest first. BASELINE rows are not kept.
+     * Older periods are read from the store on demand; everything from loadedFrom on is in memory.
+     * Writers hold the lock and publish a new View; readers just take view().
+     */
+    public static class ServerHistory {
+
+        // BASELINE rows only mark where tracking started and are never shown
+        private static final ClaimHistoryQuery SHOWN = ClaimHistoryQuery.ALL
+                .withTypes(ClaimChangeReader.ChangeType.ADD, ClaimChangeReader.ChangeType.REMOVE);
+
+        private ClaimHistoryStore store;
+
+        // Rows before diskUntil come from the store; later ones are appended live (null = no live cut-off)
+        private LocalDateTime diskUntil;
+
+        // Everything from this timestamp on is loaded (MIN = all of it, null = nothing yet)
+        private LocalDateTime loadedFrom;
+
+        // The tracker is connected and appending
+        private boolean live;
+
+        // Follows the files while no tracker is appending (null while live)
+        private ClaimHistoryTail tail;
+
+        private ClaimChangeTable table = new ClaimChangeTable();
+        private volatile ClaimChangeTable.View current = ClaimChangeTable.View.EMPTY;
+
+        private ServerHistory(ClaimHistoryStore store) {
+            this.store = store;
+        }
+
+        /**
+         * Current contents. Never changes once returned.
+         */
+        public ClaimChangeTable.View view() {
+            return current;
+        }
+
+        public synchronized ClaimHistoryStore getStore() {
+            return store;
+        }
+
+        /**
+         * Whether everything from the given timestamp on is in memory (null = all history).
+         */
+        public synchronized boolean isLoadedFrom(LocalDateTime from) {
+            if (loadedFrom == null) return false;
+            return from == null ? loadedFrom.equals(LocalDateTime.MIN) : !from.isBefore(loadedFrom);
+        }
+
+        /**
+         * Read whatever is missing so everything from the given timestamp on is in memory (null = all history).
+         */
+        public void ensureLoaded(LocalDateTime from) {
+            ensureLoaded(from, bytes -> {});
+        }
+
+        /**
+         * As ensureLoaded, reporting the bytes of each segment as it is read (see bytesToLoad).
+         */
+        public synchronized void ensureLoaded(LocalDateTime from, LongConsumer progress) {
+            if (isLoadedFrom(from)) {
+                return;
+            }
+
+            // First load reads up to the live cut-off; later loads only fill the gap before what's loaded
+            LocalDateTime to = loadedFrom != null ? loadedFrom : diskUntil;
+            merge(SHOWN.between(from, to).list(store, progress));
+            loadedFrom = from != null ? from : LocalDateTime.MIN;
+
+            if (tail == null && !live) {
+                tail = new ClaimHistoryTail(store);
+            }
+        }
+
+        /**
+         * Segment bytes ensureLoaded(from) would still have to read, from the store's manifest alone.
+         */
+        public synchronized long bytesToLoad(LocalDateTime from) {
+            if (isLoadedFrom(from)) {
+                return 0;
+            }
+            LocalDateTime to = loadedFrom != null ? loadedFrom : diskUntil;
+            long bytes = 0;
+            for (ClaimHistoryStore.Segment segment : store.segmentsBetween(from, to)) {
+                bytes += segment.bytes();
+            }
+            return bytes;
+        }
+
+        /**
+         * Add changes the tracker just handed to the journal.
+         */
+        public synchronized void append(List<ClaimChangeReader.ClaimChange> changes) {
+            merge(SHOWN.filter(changes));
+        }
+
+        /**
+         * Pick up rows written to the files by someone other than the tracker.
+         * Live histories are always current, so this only polls the files while detached.
+         * @return true if anything changed
+         */
+        public synchronized boolean refresh() {
+            if (tail == null) {
+                return false;
+            }
+
+            ClaimHistoryTail.Poll poll = tail.poll();
+            if (poll.reloadRequired()) {
+                // Truncated or rotated - start over from the same point
+                LocalDateTime from = loadedFrom;
+                clear();
+                ensureLoaded(from.equals(LocalDateTime.MIN) ? null : from);
+                return true;
+            }
+
+            int before = table.size();
+            merge(SHOWN.filter(poll.appended()));
+            return table.size() != before;
+        }
+
+        private synchronized void attach(ClaimHistoryStore store) {
+            this.store = store;
+            live = true;
+            tail = null;
+            if (loadedFrom == null) {
+                // Nothing read yet: the files cover up to now, the tracker covers the rest
+                diskUntil = LocalDateTime.now();
+            }
+        }
+
+        private synchronized void detach() {
+            live = false;
+            diskUntil = null;
+            if (loadedFrom != null) {
+                tail = new ClaimHistoryTail(store);
+            } else {
+                // Only live rows so far, and the journal has written them - the first load reads them back
+                clear();
+            }
+        }
+
+        private void clear() {
+            table = new ClaimChangeTable();
+            loadedFrom = null;
+            tail = null;
+            current = ClaimChangeTable.View.EMPTY;
+        }
+
+        /**
+         * Add rows keeping time order. Rows at or after the newest are appended in place;
+         * anything older goes through a merge into a fresh table so published views never change.
+         */
+        private void merge(List<ClaimChangeReader.ClaimChange> added) {
+            if (added.isEmpty()) {
+                return;
+            }
+
+            List<ClaimChangeReader.ClaimChange> sorted = new ArrayList<>(added);
+            sorted.sort(Comparator.comparing(ClaimChangeReader.ClaimChange::timestamp));
+
+            if (ClaimChangeTable.toMillis(sorted.get(0).timestamp()) >= table.lastTime()) {
+                for (ClaimChangeReader.ClaimChange change : sorted) {
+                    table.append(change);
+                }
+            } else {
+                int size = table.size();
+                int n = sorted.size();
+                ClaimChangeTable merged = table.emptyCopy(size + n + ((size + n) >> 2));
+                int i = 0, j = 0;
+                while (i < size || j < n) {
+                    // Existing rows first on ties so earlier-loaded order is kept
+                    if (j == n || (i < size && table.time(i) <= ClaimChangeTable.toMillis(sorted.get(j).timestamp()))) {
+                        merged.appendRow(table, i++);
+                    } else {
+                        merged.append(sorted.get(j++));
+                    }
+                }
+                table = merged;
+            }
+
+            current = table.view();
+        }
+    }
+}
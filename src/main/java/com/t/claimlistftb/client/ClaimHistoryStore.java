@@ -0,0 +1,605 @@
+package com.t.claimlistftb.client;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Claim change history for one server, split into one append-only CSV segment per day.
+ *
+ * Layout: <server>.history/
+ *   yyyy-MM-dd.csv   rows whose timestamp falls on that day (same columns as the old single CSV)
+ *   yyyy-MM-dd.csv.z the same, once the day is old enough to compress (see ClaimSegmentArchive)
+ *   manifest.csv     segment, first_timestamp, last_timestamp, rows, bytes
+ *   rollups.bin      hourly adds/removes/transfers per team and dimension (see ClaimActivityRollups)
+ *
+ * Readers only open the segments whose day overlaps the requested window, and retention
+ * is just deleting whole segments. The manifest is a cache: segments are the source of
+ * truth, and any segment whose size doesn't match its manifest entry is rescanned.
+ * Sizes and offsets always refer to the plain CSV, so compressing a day doesn't invalidate
+ * the manifest or the rollups; a compressed day is expanded again before anything is appended to it.
+ */
+public class ClaimHistoryStore {
+
+    public static final String DIRECTORY_SUFFIX = ".history";
+    public static final int RETENTION_DAYS = 365;
+
+    public static final String MANIFEST_FILE = "manifest.csv";
+    private static final String MANIFEST_HEADER = "segment,first_timestamp,last_timestamp,rows,bytes\n";
+    private static final String SEGMENT_SUFFIX = ".csv";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final Path directory;
+    private final TreeMap<LocalDate, Segment> segments = new TreeMap<>();
+    private final Set<LocalDate> archived = new HashSet<>();
+    private final ClaimActivityRollups rollups;
+
+    /**
+     * One day's segment. first/last are the earliest and latest row timestamps seen in it.
+     */
+    public record Segment(LocalDate day, LocalDateTime first, LocalDateTime last, int rows, long bytes) {
+        public LocalDateTime start() {
+            return day.atStartOfDay();
+        }
+
+        public LocalDateTime end() {
+            return day.plusDays(1).atStartOfDay();
+        }
+
+        /**
+         * Whether this day overlaps [from, to). Null bounds are open.
+         */
+        public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+            return (from == null || end().isAfter(from)) && (to == null || start().isBefore(to));
+        }
+    }
+
+    private ClaimHistoryStore(Path directory) {
+        this.directory = directory;
+        this.rollups = new ClaimActivityRollups(this);
+    }
+
+    /**
+     * Open (or create) a server's history, migrating the old single CSV into segments if
+     * the history directory doesn't exist yet. legacyCsv may be null.
+     */
+    public static ClaimHistoryStore open(Path directory, Path legacyCsv) {
+        ClaimHistoryStore store = new ClaimHistoryStore(directory);
+        if (!Files.isDirectory(directory) && legacyCsv != null && Files.isRegularFile(legacyCsv)) {
+            store.migrateLegacyCsv(legacyCsv);
+        }
+        store.loadManifest();
+        return store;
+    }
+
+    /**
+     * History directory for a server's files, e.g. "myserver-1a2b3c4d.history".
+     */
+    public static Path directoryFor(Path folder, String baseName) {
+        return folder.resolve(baseName + DIRECTORY_SUFFIX);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Hourly activity counts over the segments; loaded on first use.
+     */
+    public ClaimActivityRollups getRollups() {
+        return rollups;
+    }
+
+    /**
+     * Plain CSV for a day. Writers call prepareAppend first in case the day is compressed.
+     */
+    public Path segmentFile(LocalDate day) {
+        return directory.resolve(day + SEGMENT_SUFFIX);
+    }
+
+    public Path archiveFile(LocalDate day) {
+        return directory.resolve(day + ClaimSegmentArchive.SUFFIX);
+    }
+
+    public synchronized boolean isArchived(LocalDate day) {
+        return archived.contains(day);
+    }
+
+    /**
+     * One day's changes with from <= timestamp < to (null bounds are open), from whichever form it is in.
+     */
+    public List<ClaimChangeReader.ClaimChange> readSegment(LocalDate day, LocalDateTime from, LocalDateTime to) {
+        if (isArchived(day)) {
+            List<ClaimChangeReader.ClaimChange> rows = readArchive(day, from, to);
+            if (rows != null) {
+                return rows;
+            }
+            // Expanded or pruned since the check; fall through to the CSV
+        }
+
+        Path csv = segmentFile(day);
+        List<ClaimChangeReader.ClaimChange> rows = ClaimChangeReader.readChanges(csv);
+        if (rows.isEmpty() && !Files.exists(csv) && isArchived(day)) {
+            // Compressed since the check; the flag is set before the CSV is deleted
+            List<ClaimChangeReader.ClaimChange> archivedRows = readArchive(day, from, to);
+            return archivedRows != null ? archivedRows : rows;
+        }
+        if (from != null || to != null) {
+            rows.removeIf(change -> !inRange(change.timestamp(), from, to));
+        }
+        return rows;
+    }
+
+    /**
+     * A compressed day's changes in range, or null if the archive is gone.
+     */
+    private List<ClaimChangeReader.ClaimChange> readArchive(LocalDate day, LocalDateTime from, LocalDateTime to) {
+        try {
+            return ClaimSegmentArchive.open(archiveFile(day)).read(from, to);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to read compressed segment " + day + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * One day's segment as CSV text, exactly as it was written.
+     */
+    public String readSegmentText(LocalDate day) throws IOException {
+        if (isArchived(day)) {
+            try {
+                return new String(ClaimSegmentArchive.open(archiveFile(day)).readAll(), StandardCharsets.UTF_8);
+            } catch (NoSuchFileException e) {
+                // Expanded since the check; read the CSV
+            }
+        }
+        try {
+            return Files.readString(segmentFile(day), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            if (!isArchived(day)) {
+                throw e;
+            }
+            // Compressed since the check
+            return new String(ClaimSegmentArchive.open(archiveFile(day)).readAll(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Size of a day's plain CSV, whether or not it is compressed.
+     */
+    public long segmentBytes(LocalDate day) throws IOException {
+        if (isArchived(day)) {
+            try {
+                return ClaimSegmentArchive.readRawSize(archiveFile(day));
+            } catch (NoSuchFileException e) {
+                // Expanded since the check; size the CSV
+            }
+        }
+        try {
+            return Files.size(segmentFile(day));
+        } catch (NoSuchFileException e) {
+            if (!isArchived(day)) {
+                throw e;
+            }
+            // Compressed since the check
+            return ClaimSegmentArchive.readRawSize(archiveFile(day));
+        }
+    }
+
+    /**
+     * Make sure a day is a plain CSV before appending to it (a no-op unless the day was compressed).
+     */
+    public void prepareAppend(LocalDate day) throws IOException {
+        if (!isArchived(day)) {
+            return;
+        }
+
+        Path csv = segmentFile(day);
+        Path temp = directory.resolve(day + SEGMENT_SUFFIX + ".tmp");
+        Files.write(temp, ClaimSegmentArchive.open(archiveFile(day)).readAll());
+        try {
+            Files.move(temp, csv, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, csv, StandardCopyOption.REPLACE_EXISTING);
+        }
+        synchronized (this) {
+            archived.remove(day);
+        }
+        Files.deleteIfExists(archiveFile(day));
+    }
+
+    /**
+     * Compress every plain segment for a day before the cutoff. Returns the number compressed.
+     * The archive is complete before the CSV is deleted, so an interruption leaves both and the CSV wins.
+     * stop is checked between days, so a long run can be abandoned (e.g. when leaving the server).
+     */
+    public int compressBefore(LocalDate cutoff, BooleanSupplier stop) {
+        List<LocalDate> days = new ArrayList<>();
+        synchronized (this) {
+            for (LocalDate day : segments.headMap(cutoff, false).keySet()) {
+                if (!archived.contains(day)) {
+                    days.add(day);
+                }
+            }
+        }
+
+        int compressed = 0;
+        for (LocalDate day : days) {
+            if (stop.getAsBoolean()) {
+                break;
+            }
+            try {
+                ClaimSegmentArchive.write(segmentFile(day), archiveFile(day));
+                synchronized (this) {
+                    archived.add(day);
+                }
+                Files.deleteIfExists(segmentFile(day));
+                compressed++;
+            } catch (IOException e) {
+                System.err.println("[ClaimListFTB] Failed to compress history segment " + day + ": " + e.getMessage());
+            }
+        }
+        return compressed;
+    }
+
+    public synchronized List<Segment> getSegments() {
+        return new ArrayList<>(segments.values());
+    }
+
+    public synchronized int getRowCount() {
+        int total = 0;
+        for (Segment segment : segments.values()) {
+            total += segment.rows();
+        }
+        return total;
+    }
+
+    /**
+     * Segments overlapping [from, to), oldest first. Null bounds are open.
+     */
+    public synchronized List<Segment> segmentsBetween(LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDate, Segment> range = segments;
+        if (from != null) {
+            range = range.tailMap(from.toLocalDate(), true);
+        }
+        if (to != null) {
+            range = range.headMap(to.toLocalDate(), true);
+        }
+
+        List<Segment> result = new ArrayList<>();
+        for (Segment segment : range.values()) {
+            if (segment.rows() > 0 && segment.overlaps(from, to)) {
+                result.add(segment);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether any segment might hold changes in [from, to), without opening it.
+     */
+    public boolean hasChangesBetween(LocalDateTime from, LocalDateTime to) {
+        return !segmentsBetween(from, to).isEmpty();
+    }
+
+    /**
+     * Read changes with from <= timestamp < to, opening only the overlapping segments.
+     * Rows come back in file order (oldest segment first).
+     */
+    public List<ClaimChangeReader.ClaimChange> read(LocalDateTime from, LocalDateTime to) {
+        List<ClaimChangeReader.ClaimChange> result = new ArrayList<>();
+        for (Segment segment : segmentsBetween(from, to)) {
+            boolean whollyInside = (from == null || !segment.start().isBefore(from))
+                    && (to == null || !segment.end().isAfter(to));
+
+            result.addAll(whollyInside ? readSegment(segment.day(), null, null) : readSegment(segment.day(), from, to));
+        }
+        return result;
+    }
+
+    /**
+     * Note rows appended to a day's segment (called by the writer after each write).
+     */
+    public synchronized void recordAppend(LocalDate day, LocalDateTime first, LocalDateTime last, int rows, long bytes) {
+        Segment existing = segments.get(day);
+        if (existing == null) {
+            segments.put(day, new Segment(day, first, last, rows, bytes));
+        } else {
+            segments.put(day, new Segment(day,
+                    min(existing.first(), first), max(existing.last(), last), existing.rows() + rows, bytes));
+        }
+    }
+
+    /**
+     * Atomically rewrite the manifest from the in-memory segment list.
+     */
+    public synchronized void saveManifest() {
+        StringBuilder sb = new StringBuilder(MANIFEST_HEADER);
+        for (Segment segment : segments.values()) {
+            sb.append(segment.day()).append(',')
+              .append(segment.first() != null ? segment.first().format(TIMESTAMP) : "").append(',')
+              .append(segment.last() != null ? segment.last().format(TIMESTAMP) : "").append(',')
+              .append(segment.rows()).append(',')
+              .append(segment.bytes()).append('\n');
+        }
+
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        Path temp = directory.resolve(MANIFEST_FILE + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(temp, sb, StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to save history manifest: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Delete every segment that ends on or before the cutoff. Returns the number removed.
+     */
+    public int prune(LocalDateTime cutoff) {
+        List<Segment> expired;
+        synchronized (this) {
+            expired = new ArrayList<>(segments.headMap(cutoff.toLocalDate(), false).values());
+        }
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        List<LocalDate> removed = new ArrayList<>();
+        for (Segment segment : expired) {
+            try {
+                Files.deleteIfExists(segmentFile(segment.day()));
+                Files.deleteIfExists(archiveFile(segment.day()));
+                synchronized (this) {
+                    segments.remove(segment.day());
+                    archived.remove(segment.day());
+                }
+                removed.add(segment.day());
+            } catch (IOException e) {
+                System.err.println("[ClaimListFTB] Failed to delete history segment " + segment.day() + ": " + e.getMessage());
+            }
+        }
+        saveManifest();
+        rollups.removeDays(removed);
+        return removed.size();
+    }
+
+    // === Manifest ===
+
+    private synchronized void loadManifest() {
+        segments.clear();
+        archived.clear();
+        Map<LocalDate, Segment> recorded = readManifestFile();
+
+        // Segments on disk are authoritative; reuse manifest stats only when the size still matches
+        boolean changed = false;
+        for (Map.Entry<LocalDate, Path> entry : listSegmentFiles().entrySet()) {
+            LocalDate day = entry.getKey();
+            Path file = entry.getValue();
+            Segment known = recorded.get(day);
+            boolean compressed = file.getFileName().toString().endsWith(ClaimSegmentArchive.SUFFIX);
+            long size;
+            try {
+                size = compressed ? ClaimSegmentArchive.readRawSize(file) : Files.size(file);
+            } catch (IOException e) {
+                System.err.println("[ClaimListFTB] Skipping unreadable history segment " + file.getFileName() + ": " + e.getMessage());
+                continue;
+            }
+            if (compressed) {
+                archived.add(day);
+            }
+
+            if (known != null && known.bytes() == size) {
+                segments.put(day, known);
+            } else {
+                segments.put(day, scanSegment(day, size));
+                changed = true;
+            }
+        }
+        if (changed || recorded.size() != segments.size()) {
+            saveManifest();
+        }
+    }
+
+    private Map<LocalDate, Segment> readManifestFile() {
+        Map<LocalDate, Segment> result = new HashMap<>();
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        if (!Files.exists(manifest)) {
+            return result;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            // Skip header
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",", -1);
+                if (parts.length < 5) continue;
+                try {
+                    LocalDate day = LocalDate.parse(parts[0]);
+                    LocalDateTime first = parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1], TIMESTAMP);
+                    LocalDateTime last = parts[2].isEmpty() ? null : LocalDateTime.parse(parts[2], TIMESTAMP);
+                    result.put(day, new Segment(day, first, last, Integer.parseInt(parts[3]), Long.parseLong(parts[4])));
+                } catch (Exception e) {
+                    // Rescanned below
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to read history manifest: " + e.getMessage());
+        }
+        return result;
+    }
+
+    private Map<LocalDate, Path> listSegmentFiles() {
+        Map<LocalDate, Path> result = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return result;
+        }
+
+        Map<LocalDate, Path> compressed = new HashMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                boolean archive = name.endsWith(ClaimSegmentArchive.SUFFIX);
+                if ((!archive && !name.endsWith(SEGMENT_SUFFIX)) || name.equals(MANIFEST_FILE)) return;
+                String suffix = archive ? ClaimSegmentArchive.SUFFIX : SEGMENT_SUFFIX;
+                try {
+                    LocalDate day = LocalDate.parse(name.substring(0, name.length() - suffix.length()));
+                    (archive ? compressed : result).put(day, file);
+                } catch (Exception e) {
+                    // Not a segment
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to list history segments: " + e.getMessage());
+        }
+
+        // Both forms only exist if compressing or expanding was interrupted; the CSV is complete either way
+        for (Map.Entry<LocalDate, Path> entry : compressed.entrySet()) {
+            if (result.containsKey(entry.getKey())) {
+                try {
+                    Files.deleteIfExists(entry.getValue());
+                } catch (IOException e) {
+                    System.err.println("[ClaimListFTB] Failed to remove stale archive " + entry.getValue().getFileName() + ": " + e.getMessage());
+                }
+            } else {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    private Segment scanSegment(LocalDate day, long size) {
+        LocalDateTime first = null;
+        LocalDateTime last = null;
+        int rows = 0;
+        for (ClaimChangeReader.ClaimChange change : readSegment(day, null, null)) {
+            first = min(first, change.timestamp());
+            last = max(last, change.timestamp());
+            rows++;
+        }
+        return new Segment(day, first, last, rows, size);
+    }
+
+    // === Migration ===
+
+    /**
+     * Split the old single-file history into daily segments, then set the old file aside.
+     * Rows are re-written in the current format; malformed rows are dropped (the old reader skipped them too).
+     * Segments are written to a ".migrating" directory that only becomes the history directory once all
+     * of them are on disk, so a failed migration leaves no directory behind and is retried on the next open.
+     */
+    private void migrateLegacyCsv(Path legacyCsv) {
+        Path temp = directory.resolveSibling(directory.getFileName() + ".migrating");
+        try {
+            // Left over from an interrupted attempt
+            deleteDirectory(temp);
+            Files.createDirectories(temp);
+
+            // The legacy file is in time order, so rows stream into one day's segment at a time
+            LocalDate day = null;
+            Writer out = null;
+            try (ClaimCsvParser parser = ClaimCsvParser.open(legacyCsv)) {
+                ClaimChangeReader.ClaimChange change;
+                while ((change = parser.next()) != null) {
+                    LocalDate changeDay = change.timestamp().toLocalDate();
+                    if (!changeDay.equals(day)) {
+                        if (out != null) {
+                            out.close();
+                        }
+                        out = openMigratedSegment(temp, changeDay);
+                        day = changeDay;
+                    }
+                    out.write(change.toCsvLine());
+                    out.write('\n');
+                }
+            } finally {
+                if (out != null) {
+                    out.close();
+                }
+            }
+
+            try {
+                Files.move(temp, directory, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, directory);
+            }
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to migrate legacy history: " + e.getMessage());
+            try {
+                deleteDirectory(temp);
+            } catch (IOException ignored) {
+                // Cleared on the next attempt
+            }
+            return;
+        }
+
+        // The history is complete now; a legacy file left behind is only ignored, never migrated twice
+        try {
+            Files.move(legacyCsv, legacyCsv.resolveSibling(legacyCsv.getFileName() + ".migrated"),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to set aside legacy history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writer for a day's segment during migration. A day seen again (an out-of-order row) is appended to.
+     */
+    private static Writer openMigratedSegment(Path dir, LocalDate day) throws IOException {
+        Path file = dir.resolve(day + SEGMENT_SUFFIX);
+        boolean exists = Files.exists(file);
+        Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (!exists) {
+            out.write(ClaimChangeJournal.CSV_HEADER);
+        }
+        return out;
+    }
+
+    /**
+     * Delete a flat directory of files, if it exists.
+     */
+    private static void deleteDirectory(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    // === Helpers ===
+
+    private static boolean inRange(LocalDateTime timestamp, LocalDateTime from, LocalDateTime to) {
+        return (from == null || !timestamp.isBefore(from)) && (to == null || timestamp.isBefore(to));
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isAfter(b) ? a : b;
+    }
+}
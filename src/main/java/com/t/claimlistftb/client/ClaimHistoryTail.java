@@ -0,0 +1,146 @@
+package com.t.claimlistftb.client;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Follows the end of a server's history so a refresh only parses rows appended since the last poll.
+ * Remembers the segment it is on, that file's key and the byte offset consumed; later day segments
+ * are read whole once they show up. If the followed file shrank, disappeared or was replaced,
+ * poll() asks the caller to reload from scratch instead.
+ */
+public class ClaimHistoryTail {
+
+    /**
+     * Rows appended since the last poll, or reloadRequired if the history was truncated or rotated.
+     */
+    public record Poll(List<ClaimChangeReader.ClaimChange> appended, boolean reloadRequired) {
+        private static final Poll NOTHING = new Poll(List.of(), false);
+        private static final Poll RELOAD = new Poll(List.of(), true);
+    }
+
+    private final ClaimHistoryStore store;
+
+    // Segment being followed (null until the history has one)
+    private LocalDate day;
+    private Object fileKey;
+    private long offset;
+
+    /**
+     * Start following at the current end of the history; existing rows are not returned.
+     */
+    public ClaimHistoryTail(ClaimHistoryStore store) {
+        this.store = store;
+
+        List<ClaimHistoryStore.Segment> segments = store.getSegments();
+        if (!segments.isEmpty()) {
+            LocalDate last = segments.get(segments.size() - 1).day();
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(store.segmentFile(last), BasicFileAttributes.class);
+                day = last;
+                fileKey = attrs.fileKey();
+                offset = attrs.size();
+            } catch (IOException e) {
+                // Treat as empty; the segment is read whole if it shows up
+            }
+        }
+    }
+
+    public ClaimHistoryStore getStore() {
+        return store;
+    }
+
+    /**
+     * Parse whatever was appended since the last poll.
+     */
+    public Poll poll() {
+        List<ClaimChangeReader.ClaimChange> appended = new ArrayList<>();
+
+        try {
+            if (day != null) {
+                BasicFileAttributes attrs = Files.readAttributes(store.segmentFile(day), BasicFileAttributes.class);
+                if (attrs.size() < offset || !Objects.equals(attrs.fileKey(), fileKey)) {
+                    return Poll.RELOAD;
+                }
+                if (attrs.size() > offset) {
+                    readFrom(store.segmentFile(day), attrs.size(), appended);
+                }
+            }
+
+            // Segments for later days are new since the last poll
+            for (ClaimHistoryStore.Segment segment : store.getSegments()) {
+                if (day != null && !segment.day().isAfter(day)) {
+                    continue;
+                }
+                Path file = store.segmentFile(segment.day());
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                day = segment.day();
+                fileKey = attrs.fileKey();
+                offset = 0;
+                readFrom(file, attrs.size(), appended);
+            }
+        } catch (NoSuchFileException e) {
+            // Segment pruned or replaced under us
+            return Poll.RELOAD;
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to read new history rows: " + e.getMessage());
+            return Poll.RELOAD;
+        }
+
+        return appended.isEmpty() ? Poll.NOTHING : new Poll(appended, false);
+    }
+
+    /**
+     * Parse complete records between offset and size, and advance offset past them.
+     * A trailing partial record (a write still in progress) is left for the next poll.
+     */
+    private void readFrom(Path file, long size, List<ClaimChangeReader.ClaimChange> out) throws IOException {
+        int length = (int) Math.min(size - offset, Integer.MAX_VALUE);
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(offset);
+            while (bytes.hasRemaining() && channel.read(bytes) > 0) {
+                // Keep reading
+            }
+        }
+
+        // offset always sits on a record start, so quote state can be tracked from there; a line break
+        // inside a quoted team name isn't a record boundary
+        int filled = bytes.position();
+        int end = 0;
+        boolean quoted = false;
+        for (int i = 0; i < filled; i++) {
+            byte b = bytes.get(i);
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n' && !quoted) {
+                end = i + 1;
+            }
+        }
+        if (end == 0) {
+            return;
+        }
+
+        // Cutting at a newline never splits a UTF-8 sequence; the parser skips the header if offset was 0
+        String text = new String(bytes.array(), 0, end, StandardCharsets.UTF_8);
+        try (ClaimCsvParser parser = new ClaimCsvParser(new StringReader(text))) {
+            ClaimChangeReader.ClaimChange change;
+            while ((change = parser.next()) != null) {
+                out.add(change);
+            }
+        }
+        offset += end;
+    }
+}
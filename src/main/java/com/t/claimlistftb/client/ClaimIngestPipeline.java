@@ -0,0 +1,139 @@
+package com.t.claimlistftb.client;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Hands claim updates from the packet hook to a single consumer thread.
+ * Producers only copy the packet into a ChunkBatch and push it onto a lock-free queue;
+ * the consumer applies batches and runs submitted tasks in arrival order. Anything that
+ * touches the tracker's caches is funnelled through here, so the consumer is their only writer.
+ */
+public class ClaimIngestPipeline {
+
+    // How long the consumer sleeps when idle if nobody wakes it
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    // Longest the client thread waits in submitAndWait before giving up and carrying on
+    private static final long WAIT_TIMEOUT_SECONDS = 30;
+
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final Consumer<ChunkBatch> batchHandler;
+    private final Runnable drainedHandler;
+    private final Thread consumer;
+
+    /**
+     * One updateChunksFromServer packet, copied out of the network objects.
+     * The arrays are private copies and are never modified after construction.
+     */
+    public record ChunkBatch(ResourceKey<Level> dimension, UUID teamId, long[] chunkKeys, boolean[] claimed) {
+        public int size() {
+            return chunkKeys.length;
+        }
+    }
+
+    /**
+     * @param batchHandler   applies one batch (runs on the consumer thread)
+     * @param drainedHandler runs after a burst of batches once the queue is empty, e.g. to flush
+     */
+    public ClaimIngestPipeline(Consumer<ChunkBatch> batchHandler, Runnable drainedHandler) {
+        this.batchHandler = batchHandler;
+        this.drainedHandler = drainedHandler;
+        this.consumer = new Thread(this::run, "ClaimListFTB Ingest");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Queue a batch. Never blocks.
+     */
+    public void submit(ChunkBatch batch) {
+        queue.offer(batch);
+        LockSupport.unpark(consumer);
+    }
+
+    /**
+     * Queue a task to run on the consumer thread after everything already queued.
+     */
+    public void submit(Runnable task) {
+        queue.offer(task);
+        LockSupport.unpark(consumer);
+    }
+
+    /**
+     * Run a task on the consumer thread and wait for it (and everything queued before it).
+     * Waits at most WAIT_TIMEOUT_SECONDS; after that the task stays queued and the caller carries on,
+     * so a stuck consumer can't freeze the game on join or leave.
+     */
+    public void submitAndWait(Runnable task) {
+        if (Thread.currentThread() == consumer) {
+            task.run();
+            return;
+        }
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        submit(() -> {
+            try {
+                task.run();
+            } finally {
+                done.complete(null);
+            }
+        });
+        try {
+            done.get(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            System.err.println("[ClaimListFTB] Claim tracker is not responding, continuing without waiting");
+        } catch (ExecutionException e) {
+            // Can't happen - the future is only ever completed normally
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        boolean appliedBatches = false;
+
+        while (true) {
+            Object item = queue.poll();
+            if (item == null) {
+                if (appliedBatches) {
+                    appliedBatches = false;
+                    runSafely(drainedHandler);
+                    continue;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+
+            if (item instanceof ChunkBatch batch) {
+                try {
+                    batchHandler.accept(batch);
+                } catch (Throwable e) {
+                    // Anything escaping here would end the only consumer thread
+                    System.err.println("[ClaimListFTB] Failed to process claim update: " + e);
+                }
+                appliedBatches = true;
+            } else {
+                runSafely((Runnable) item);
+            }
+        }
+    }
+
+    private static void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable e) {
+            System.err.println("[ClaimListFTB] Claim tracker task failed: " + e);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.t.claimlistftb.client;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Several servers' histories loaded side by side for the cross-server view.
+ * Each server goes through ClaimHistoryRepository like the single-server screen, so anything already
+ * in memory is reused and anything read here stays for the session. Loads run on a small shared pool
+ * (a long server list queues instead of starting a thread per server) and report progress in segment
+ * bytes from the store's manifest. timeline() merges the loaded views by time: each server's view is
+ * already in time order, so a range is a binary search per server and a k-way merge of the slices.
+ */
+public class ClaimMultiServerHistory {
+
+    // Loading is mostly disk and parsing; leave a core for the game
+    private static final int MAX_LOADERS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static final AtomicInteger LOADER_COUNT = new AtomicInteger();
+    private static final ThreadPoolExecutor LOADERS = new ThreadPoolExecutor(MAX_LOADERS, MAX_LOADERS,
+            30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "ClaimListFTB Loader-" + LOADER_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        // Idle loaders exit, so the pool costs nothing once the screen is closed
+        LOADERS.allowCoreThreadTimeOut(true);
+    }
+
+    public enum State {
+        QUEUED,
+        LOADING,
+        LOADED,
+        // The server has no history files
+        MISSING,
+        FAILED
+    }
+
+    /**
+     * One server in the view and how far its load has got.
+     */
+    public static final class Source {
+        private final UUID serverId;
+        private final String name;
+        private final Supplier<ClaimHistoryStore> opener;
+
+        private volatile State state = State.QUEUED;
+        private volatile ClaimHistoryRepository.ServerHistory history;
+        private volatile ClaimHistoryStore store;
+        private final AtomicLong bytesRead = new AtomicLong();
+        private volatile long bytesTotal;
+
+        // Earliest timestamp asked for so far (MAX = nothing yet, null = all history) and the load queued for it
+        private LocalDateTime wanted = LocalDateTime.MAX;
+        private Future<?> task;
+
+        /**
+         * @param opener opens the server's store the first time it's needed (null if it has no history)
+         */
+        public Source(UUID serverId, String name, Supplier<ClaimHistoryStore> opener) {
+            this.serverId = serverId;
+            this.name = name;
+            this.opener = opener;
+        }
+
+        public UUID getServerId() {
+            return serverId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * Fraction of the current load read so far (1 when nothing is left to read).
+         */
+        public float getProgress() {
+            long total = bytesTotal;
+            return total <= 0 ? (state == State.LOADING || state == State.QUEUED ? 0 : 1)
+                    : Math.min(1.0f, (float) bytesRead.get() / total);
+        }
+
+        /**
+         * Whatever is loaded so far. Never changes once returned.
+         */
+        public ClaimChangeTable.View view() {
+            ClaimHistoryRepository.ServerHistory current = history;
+            return current != null ? current.view() : ClaimChangeTable.View.EMPTY;
+        }
+    }
+
+    private final List<Source> sources;
+
+    // Bumped by loaders whenever a state or the progress changes, so the screen knows when to redraw
+    private final AtomicLong version = new AtomicLong();
+
+    public ClaimMultiServerHistory(List<Source> sources) {
+        this.sources = List.copyOf(sources);
+    }
+
+    public List<Source> getSources() {
+        return sources;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public boolean isLoading() {
+        for (Source source : sources) {
+            if (source.state == State.QUEUED || source.state == State.LOADING) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Make sure every server has everything from the given timestamp on in memory (null = all history).
+     * Servers that already do are left alone; the rest are queued on the loader pool.
+     */
+    public synchronized void load(LocalDateTime from) {
+        for (Source source : sources) {
+            ClaimHistoryRepository.ServerHistory history = source.history;
+            if (source.state == State.MISSING || (history != null && source.state != State.FAILED
+                    && history.isLoadedFrom(from))) {
+                continue;
+            }
+
+            // A load that hasn't started yet is replaced by one covering both requests
+            source.wanted = source.wanted == null || from == null ? null
+                    : from.isBefore(source.wanted) ? from : source.wanted;
+            if (source.task != null) {
+                source.task.cancel(false);
+            }
+            LocalDateTime wanted = source.wanted;
+            source.state = State.QUEUED;
+            source.task = LOADERS.submit(() -> loadSource(source, wanted));
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Drop loads that haven't started (the screen closed). Running ones finish and stay in the repository.
+     */
+    public synchronized void cancel() {
+        for (Source source : sources) {
+            if (source.task != null) {
+                source.task.cancel(false);
+            }
+        }
+    }
+
+    private void loadSource(Source source, LocalDateTime from) {
+        source.state = State.LOADING;
+        version.incrementAndGet();
+        try {
+            ClaimHistoryRepository.ServerHistory history = source.history;
+            if (history == null) {
+                history = ClaimHistoryRepository.getInstance().get(source.serverId, source.opener);
+                if (history == null) {
+                    source.state = State.MISSING;
+                    return;
+                }
+                source.history = history;
+                source.store = history.getStore();
+            }
+
+            source.bytesRead.set(0);
+            source.bytesTotal = history.bytesToLoad(from);
+            history.ensureLoaded(from, bytes -> {
+                source.bytesRead.addAndGet(bytes);
+                version.incrementAndGet();
+            });
+
+            // Period totals come from the rollups; build them here rather than on the render thread
+            source.store.getRollups().totals(null, null, null, null);
+            source.state = State.LOADED;
+        } catch (Exception e) {
+            System.err.println("[ClaimListFTB] Failed to load history for " + source.name + ": " + e.getMessage());
+            source.state = State.FAILED;
+        } finally {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Activity in [from, to) summed over every opened server, from their hourly rollups.
+     * Servers still queued for their first load aren't counted yet.
+     */
+    public ClaimActivityRollups.Totals totals(LocalDateTime from, LocalDateTime to) {
+        int added = 0;
+        int removed = 0;
+        int transferred = 0;
+        for (Source source : sources) {
+            ClaimHistoryStore store = source.store;
+            if (store == null || source.state == State.LOADING) {
+                continue;
+            }
+            ClaimActivityRollups.Totals totals = store.getRollups().totals(from, to, null, null);
+            added += totals.added();
+            removed += totals.removed();
+            transferred += totals.transferred();
+        }
+        return new ClaimActivityRollups.Totals(added, removed, transferred);
+    }
+
+    /**
+     * Whether any opened server's manifest has changes in [from, to), loaded or not.
+     */
+    public boolean hasChangesBetween(LocalDateTime from, LocalDateTime to) {
+        for (Source source : sources) {
+            ClaimHistoryStore store = source.store;
+            if (store != null && store.hasChangesBetween(from, to)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loaded changes with from <= timestamp < to from every server, merged oldest first.
+     * Null bounds are open.
+     */
+    public Timeline timeline(LocalDateTime from, LocalDateTime to) {
+        long fromMillis = from != null ? ClaimChangeTable.toMillis(from) : Long.MIN_VALUE;
+        long toMillis = to != null ? ClaimChangeTable.toMillis(to) : Long.MAX_VALUE;
+
+        // Slice each server's view with two binary searches
+        List<Source> included = new ArrayList<>();
+        List<ClaimChangeTable.View> slices = new ArrayList<>();
+        int total = 0;
+        for (Source source : sources) {
+            ClaimChangeTable.View view = source.view();
+            int start = from != null ? view.indexOfTime(fromMillis) : 0;
+            int end = to != null ? view.indexOfTime(toMillis) : view.size();
+            if (start < end) {
+                included.add(source);
+                slices.add(start == 0 && end == view.size() ? view : view.range(start, end));
+                total += end - start;
+            }
+        }
+        if (total == 0) {
+            return Timeline.EMPTY;
+        }
+
+        // k-way merge; k is the number of servers, so picking the smallest head by scanning is enough
+        int k = slices.size();
+        int[] heads = new int[k];
+        int[] servers = new int[total];
+        int[] positions = new int[total];
+        for (int n = 0; n < total; n++) {
+            int best = -1;
+            long bestTime = Long.MAX_VALUE;
+            for (int s = 0; s < k; s++) {
+                ClaimChangeTable.View slice = slices.get(s);
+                if (heads[s] < slice.size()) {
+                    long time = slice.time(heads[s]);
+                    // Strictly smaller, so ties keep server order
+                    if (best < 0 || time < bestTime) {
+                        best = s;
+                        bestTime = time;
+                    }
+                }
+            }
+            servers[n] = best;
+            positions[n] = heads[best]++;
+        }
+
+        return new Timeline(included.toArray(new Source[0]), slices.toArray(new ClaimChangeTable.View[0]),
+                servers, positions);
+    }
+
+    /**
+     * Changes from several servers in time order, oldest first. Rows stay in their servers' views;
+     * the timeline only holds which server and position each entry is.
+     */
+    public static final class Timeline {
+
+        public static final Timeline EMPTY = new Timeline(new Source[0], new ClaimChangeTable.View[0], new int[0], new int[0]);
+
+        private final Source[] sources;
+        private final ClaimChangeTable.View[] views;
+        private final int[] servers;
+        private final int[] positions;
+
+        private Timeline(Source[] sources, ClaimChangeTable.View[] views, int[] servers, int[] positions) {
+            this.sources = sources;
+            this.views = views;
+            this.servers = servers;
+            this.positions = positions;
+        }
+
+        public int size() {
+            return servers.length;
+        }
+
+        public boolean isEmpty() {
+            return servers.length == 0;
+        }
+
+        /**
+         * The server an entry came from (the server column).
+         */
+        public Source source(int index) {
+            return sources[servers[index]];
+        }
+
+        public LocalDateTime timestamp(int index) {
+            return views[servers[index]].timestamp(positions[index]);
+        }
+
+        public String teamName(int index) {
+            return views[servers[index]].teamName(positions[index]);
+        }
+
+        public ResourceKey<Level> dimension(int index) {
+            return views[servers[index]].dimension(positions[index]);
+        }
+
+        public int chunkX(int index) {
+            return views[servers[index]].chunkX(positions[index]);
+        }
+
+        public int chunkZ(int index) {
+            return views[servers[index]].chunkZ(positions[index]);
+        }
+
+        public ClaimChangeReader.ChangeType type(int index) {
+            return views[servers[index]].type(positions[index]);
+        }
+
+        public ClaimChangeReader.ClaimChange get(int index) {
+            return views[servers[index]].get(positions[index]);
+        }
+    }
+}
@@ -1,8 +1,5 @@
 package com.t.claimlistftb.client;
 
-import dev.ftb.mods.ftbteams.api.FTBTeamsAPI;
-import dev.ftb.mods.ftbteams.api.Team;
-import dev.ftb.mods.ftbteams.api.property.TeamProperties;
 import net.minecraft.client.Minecraft;
 
 import java.util.*;
@@ -84,28 +81,17 @@ public class ClaimOwner {
     }
 
     /**
-     * Load members from the FTB Teams API.
+     * Load members from the cached FTB Teams metadata.
      */
     private List<String> loadMembers() {
         List<String> names = new ArrayList<>();
 
-        try {
-            Optional<Team> teamOpt = FTBTeamsAPI.api().getClientManager().getTeamByID(teamId);
-            if (teamOpt.isEmpty()) {
-                return names;
+        TeamInfoCache.TeamInfo info = TeamInfoCache.get(teamId);
+        for (UUID memberId : info.members()) {
+            String name = getMemberName(memberId);
+            if (name != null && !name.isEmpty()) {
+                names.add(name);
             }
-
-            Team team = teamOpt.get();
-            Set<UUID> memberIds = team.getMembers();
-
-            for (UUID memberId : memberIds) {
-                String name = getMemberName(memberId);
-                if (name != null && !name.isEmpty()) {
-                    names.add(name);
-                }
-            }
-        } catch (Exception e) {
-            // Silently handle errors - member list is not critical
         }
 
         return names;
@@ -115,17 +101,10 @@ public class ClaimOwner {
      * Get a member's display name from their UUID.
      */
     private String getMemberName(UUID memberId) {
-        // Try to get from FTB Teams (player's personal team has their name)
-        try {
-            Optional<Team> memberTeam = FTBTeamsAPI.api().getClientManager().getTeamByID(memberId);
-            if (memberTeam.isPresent()) {
-                String name = memberTeam.get().getProperty(TeamProperties.DISPLAY_NAME);
-                if (name != null && !name.isEmpty()) {
-                    return name;
-                }
-            }
-        } catch (Exception e) {
-            // Ignore
+        // Try FTB Teams first (player's personal team has their name)
+        TeamInfoCache.TeamInfo memberTeam = TeamInfoCache.get(memberId);
+        if (memberTeam.known()) {
+            return memberTeam.displayName();
         }
 
         // Try to get from online players
@@ -0,0 +1,284 @@
+package com.t.claimlistftb.client;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A day segment compressed for cold storage (yyyy-MM-dd.csv.z).
+ * The CSV is cut into ~64 KiB blocks on record boundaries and each block is deflated on its own.
+ * An index up front holds each block's raw offset and length and the time range of its rows,
+ * so a range read only inflates the blocks it overlaps.
+ *
+ * Format (big-endian):
+ *   int magic, int version, long rawSize, int blockCount
+ *   blockCount x (long rawOffset, int rawLength, int compressedLength, long minMillis, long maxMillis)
+ *   compressed blocks, in order
+ */
+public class ClaimSegmentArchive {
+
+    public static final String SUFFIX = ".csv.z";
+
+    private static final int MAGIC = 0x434C535A; // "CLSZ"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+    private static final int ENTRY_BYTES = 32;
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    // Written once and read rarely, and inflating doesn't get slower with the level
+    private static final int LEVEL = Deflater.BEST_COMPRESSION;
+
+    private final Path file;
+    private final long rawSize;
+    private final long[] rawOffsets;
+    private final int[] rawLengths;
+    private final long[] dataOffsets;
+    private final int[] dataLengths;
+    private final long[] minTimes;
+    private final long[] maxTimes;
+
+    private ClaimSegmentArchive(Path file, long rawSize, int blocks) {
+        this.file = file;
+        this.rawSize = rawSize;
+        this.rawOffsets = new long[blocks];
+        this.rawLengths = new int[blocks];
+        this.dataOffsets = new long[blocks];
+        this.dataLengths = new int[blocks];
+        this.minTimes = new long[blocks];
+        this.maxTimes = new long[blocks];
+    }
+
+    /**
+     * Compress a CSV segment into an archive (temp file, then atomic move). The CSV is left in place.
+     */
+    public static void write(Path csv, Path archive) throws IOException {
+        byte[] raw = Files.readAllBytes(csv);
+
+        // Cut after an unquoted line break once a block is big enough, so no record spans two blocks
+        List<int[]> blocks = new ArrayList<>();
+        int blockStart = 0;
+        boolean quoted = false;
+        for (int i = 0; i < raw.length; i++) {
+            byte b = raw[i];
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n' && !quoted && i + 1 - blockStart >= BLOCK_SIZE) {
+                blocks.add(new int[] { blockStart, i + 1 - blockStart });
+                blockStart = i + 1;
+            }
+        }
+        if (blockStart < raw.length || blocks.isEmpty()) {
+            blocks.add(new int[] { blockStart, raw.length - blockStart });
+        }
+
+        ByteBuffer index = ByteBuffer.allocate(HEADER_BYTES + blocks.size() * ENTRY_BYTES);
+        index.putInt(MAGIC);
+        index.putInt(VERSION);
+        index.putLong(raw.length);
+        index.putInt(blocks.size());
+
+        List<byte[]> compressed = new ArrayList<>(blocks.size());
+        Deflater deflater = new Deflater(LEVEL);
+        try {
+            byte[] out = new byte[BLOCK_SIZE];
+            for (int[] block : blocks) {
+                deflater.reset();
+                deflater.setInput(raw, block[0], block[1]);
+                deflater.finish();
+                ByteBuffer data = ByteBuffer.allocate(Math.max(64, block[1] / 2));
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(out);
+                    if (data.remaining() < n) {
+                        ByteBuffer grown = ByteBuffer.allocate(Math.max(data.capacity() * 2, data.position() + n));
+                        data.flip();
+                        grown.put(data);
+                        data = grown;
+                    }
+                    data.put(out, 0, n);
+                }
+                byte[] bytes = new byte[data.position()];
+                data.flip().get(bytes);
+                compressed.add(bytes);
+
+                // Time range of the block's rows (the header in the first block is skipped by the parser)
+                long min = Long.MAX_VALUE;
+                long max = Long.MIN_VALUE;
+                String text = new String(raw, block[0], block[1], StandardCharsets.UTF_8);
+                try (ClaimCsvParser parser = new ClaimCsvParser(new StringReader(text))) {
+                    ClaimChangeReader.ClaimChange change;
+                    while ((change = parser.next()) != null) {
+                        long time = ClaimChangeTable.toMillis(change.timestamp());
+                        min = Math.min(min, time);
+                        max = Math.max(max, time);
+                    }
+                }
+
+                index.putLong(block[0]);
+                index.putInt(block[1]);
+                index.putInt(bytes.length);
+                index.putLong(min);
+                index.putLong(max);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        Path temp = archive.resolveSibling(archive.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            index.flip();
+            while (index.hasRemaining()) {
+                channel.write(index);
+            }
+            for (byte[] bytes : compressed) {
+                ByteBuffer data = ByteBuffer.wrap(bytes);
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Open an archive, reading only its index.
+     */
+    public static ClaimSegmentArchive open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a history archive: " + file.getFileName());
+            }
+            long rawSize = header.getLong();
+            int blocks = header.getInt();
+            if (blocks < 0 || (long) blocks * ENTRY_BYTES > channel.size()) {
+                throw new IOException("Corrupt history archive: " + file.getFileName());
+            }
+
+            ClaimSegmentArchive archive = new ClaimSegmentArchive(file, rawSize, blocks);
+            ByteBuffer index = readFully(channel, HEADER_BYTES, blocks * ENTRY_BYTES);
+            long dataOffset = HEADER_BYTES + (long) blocks * ENTRY_BYTES;
+            for (int i = 0; i < blocks; i++) {
+                archive.rawOffsets[i] = index.getLong();
+                archive.rawLengths[i] = index.getInt();
+                archive.dataLengths[i] = index.getInt();
+                archive.minTimes[i] = index.getLong();
+                archive.maxTimes[i] = index.getLong();
+                archive.dataOffsets[i] = dataOffset;
+                dataOffset += archive.dataLengths[i];
+            }
+            if (dataOffset > channel.size()) {
+                throw new IOException("Truncated history archive: " + file.getFileName());
+            }
+            return archive;
+        }
+    }
+
+    /**
+     * Size of the original CSV, read from the header alone.
+     */
+    public static long readRawSize(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a history archive: " + file.getFileName());
+            }
+            return header.getLong();
+        }
+    }
+
+    public long getRawSize() {
+        return rawSize;
+    }
+
+    /**
+     * Changes with from <= timestamp < to, inflating only blocks whose rows can fall in range.
+     * Null bounds are open.
+     */
+    public synchronized List<ClaimChangeReader.ClaimChange> read(LocalDateTime from, LocalDateTime to) throws IOException {
+        long fromMillis = from != null ? ClaimChangeTable.toMillis(from) : Long.MIN_VALUE;
+        long toMillis = to != null ? ClaimChangeTable.toMillis(to) : Long.MAX_VALUE;
+
+        List<ClaimChangeReader.ClaimChange> result = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < rawOffsets.length; i++) {
+                if (maxTimes[i] < fromMillis || minTimes[i] >= toMillis) {
+                    continue;
+                }
+
+                byte[] raw = inflate(channel, i);
+                String text = new String(raw, StandardCharsets.UTF_8);
+                try (ClaimCsvParser parser = new ClaimCsvParser(new StringReader(text))) {
+                    ClaimChangeReader.ClaimChange change;
+                    while ((change = parser.next()) != null) {
+                        long time = ClaimChangeTable.toMillis(change.timestamp());
+                        if (time >= fromMillis && time < toMillis) {
+                            result.add(change);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The whole original CSV.
+     */
+    public synchronized byte[] readAll() throws IOException {
+        byte[] raw = new byte[(int) rawSize];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < rawOffsets.length; i++) {
+                byte[] block = inflate(channel, i);
+                System.arraycopy(block, 0, raw, (int) rawOffsets[i], block.length);
+            }
+        }
+        return raw;
+    }
+
+    private byte[] inflate(FileChannel channel, int block) throws IOException {
+        ByteBuffer data = readFully(channel, dataOffsets[block], dataLengths[block]);
+        byte[] raw = new byte[rawLengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data.array(), 0, dataLengths[block]);
+            int n = 0;
+            while (n < raw.length) {
+                int read = inflater.inflate(raw, n, raw.length - n);
+                if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated block in " + file.getFileName());
+                }
+                n += read;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block in " + file.getFileName() + ": " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+        return raw;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,200 @@
+package com.t.claimlistftb.client;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Index of the servers whose history lives in one data folder, kept in servers.csv next to them:
+ *   server_id, name, history, cache, last_modified, rows, claims
+ * Fields are quoted like the history CSVs when they need it (a server name can contain commas).
+ * history and cache are file names relative to the folder. The tracker rewrites its server's entry
+ * (temp file + atomic move) on join, on leave and whenever it checkpoints the claim cache, so the
+ * history screen can list servers and find a server's files with one small read instead of walking
+ * the folder and guessing full UUIDs from the 8-character suffix in the file names.
+ */
+public class ClaimServerManifest {
+
+    public static final String FILE_NAME = "servers.csv";
+    private static final String HEADER = "server_id,name,history,cache,last_modified,rows,claims\n";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    /**
+     * One server's entry. exact is false for entries seeded from file names, whose ID is only a stand-in
+     * until the tracker next connects to that server.
+     */
+    public record Entry(UUID serverId, String name, String history, String cache,
+                        LocalDateTime lastModified, int rows, int claims, boolean exact) {
+        public Path historyDir(Path folder) {
+            return folder.resolve(history);
+        }
+
+        public Path cacheFile(Path folder) {
+            return cache.isEmpty() ? null : folder.resolve(cache);
+        }
+    }
+
+    private ClaimServerManifest() {}
+
+    /**
+     * Every server in the folder, most recently active first.
+     * If the folder has history but no manifest yet, one is built from the file names and saved.
+     */
+    public static synchronized List<Entry> read(Path folder) {
+        Path file = folder.resolve(FILE_NAME);
+        List<Entry> entries;
+        if (Files.exists(file)) {
+            entries = readFile(file);
+        } else {
+            entries = scanFolder(folder);
+            if (!entries.isEmpty()) {
+                write(folder, entries);
+            }
+        }
+
+        entries.sort(Comparator.comparing(Entry::lastModified).reversed());
+        return entries;
+    }
+
+    /**
+     * A server's entry, or null if the folder has no history for it.
+     * Seeded entries (no exact ID yet) are matched by the short ID in their file name.
+     */
+    public static Entry find(Path folder, UUID serverId) {
+        String suffix = "-" + serverId.toString().substring(0, 8) + ClaimHistoryStore.DIRECTORY_SUFFIX;
+        Entry seeded = null;
+        for (Entry entry : read(folder)) {
+            if (entry.serverId().equals(serverId)) {
+                return entry;
+            }
+            if (!entry.exact() && seeded == null && entry.history().endsWith(suffix)) {
+                seeded = entry;
+            }
+        }
+        return seeded;
+    }
+
+    /**
+     * Add or replace a server's entry. A seeded entry for the same history directory is replaced too.
+     */
+    public static synchronized void update(Path folder, Entry entry) {
+        List<Entry> entries = read(folder);
+        entries.removeIf(existing -> existing.serverId().equals(entry.serverId())
+                || existing.history().equals(entry.history()));
+        entries.add(entry);
+        entries.sort(Comparator.comparing(Entry::lastModified).reversed());
+        write(folder, entries);
+    }
+
+    private static void write(Path folder, List<Entry> entries) {
+        StringBuilder sb = new StringBuilder(HEADER);
+        for (Entry entry : entries) {
+            sb.append(entry.exact() ? entry.serverId().toString() : "").append(',')
+              .append(ClaimChangeJournal.escapeCsv(entry.name())).append(',')
+              .append(ClaimChangeJournal.escapeCsv(entry.history())).append(',')
+              .append(ClaimChangeJournal.escapeCsv(entry.cache())).append(',')
+              .append(entry.lastModified().format(TIMESTAMP)).append(',')
+              .append(entry.rows()).append(',')
+              .append(entry.claims()).append('\n');
+        }
+
+        Path manifest = folder.resolve(FILE_NAME);
+        Path temp = folder.resolve(FILE_NAME + ".tmp");
+        try {
+            Files.createDirectories(folder);
+            Files.writeString(temp, sb, StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to save server manifest: " + e.getMessage());
+        }
+    }
+
+    private static List<Entry> readFile(Path file) {
+        List<Entry> entries = new ArrayList<>();
+        try (ClaimCsvParser parser = ClaimCsvParser.open(file)) {
+            // Skip header
+            String[] parts = parser.nextFields();
+            while ((parts = parser.nextFields()) != null) {
+                if (parts.length < 7) continue;
+                try {
+                    boolean exact = !parts[0].isEmpty();
+                    UUID serverId = exact ? UUID.fromString(parts[0]) : seededId(parts[2]);
+                    entries.add(new Entry(serverId, parts[1], parts[2], parts[3],
+                            LocalDateTime.parse(parts[4], TIMESTAMP),
+                            Integer.parseInt(parts[5]), Integer.parseInt(parts[6]), exact));
+                } catch (Exception e) {
+                    // Skip damaged entries; the tracker rewrites its own on the next join
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to read server manifest: " + e.getMessage());
+        }
+        return entries;
+    }
+
+    /**
+     * Build entries from "<name>-<shortId>.history" directories and old "<name>-<shortId>.csv" files.
+     * Only used once per folder, before any tracker has written the manifest.
+     */
+    private static List<Entry> scanFolder(Path folder) {
+        Map<String, Entry> byHistory = new LinkedHashMap<>();
+        if (!Files.isDirectory(folder)) {
+            return new ArrayList<>();
+        }
+
+        try (Stream<Path> files = Files.list(folder)) {
+            for (Path path : files.toList()) {
+                String fileName = path.getFileName().toString();
+                String baseName;
+                if (fileName.endsWith(ClaimHistoryStore.DIRECTORY_SUFFIX)) {
+                    baseName = fileName.substring(0, fileName.length() - ClaimHistoryStore.DIRECTORY_SUFFIX.length());
+                } else if (fileName.endsWith(".csv") && !fileName.equals(FILE_NAME)) {
+                    baseName = fileName.substring(0, fileName.length() - ".csv".length());
+                } else {
+                    continue;
+                }
+
+                String history = baseName + ClaimHistoryStore.DIRECTORY_SUFFIX;
+                int lastDash = baseName.lastIndexOf('-');
+                String name = lastDash > 0 ? baseName.substring(0, lastDash) : baseName;
+                String cache = Files.exists(folder.resolve(baseName + ".claims")) ? baseName + ".claims" : "";
+
+                // The history manifest is rewritten on every write, so it dates the last activity
+                Path stamp = Files.isDirectory(path) && Files.exists(path.resolve(ClaimHistoryStore.MANIFEST_FILE))
+                        ? path.resolve(ClaimHistoryStore.MANIFEST_FILE) : path;
+                try {
+                    LocalDateTime lastModified = LocalDateTime.ofInstant(
+                            Files.getLastModifiedTime(stamp).toInstant(), ZoneId.systemDefault());
+
+                    // A server can briefly have both forms (before migration) - keep the newer stamp
+                    Entry existing = byHistory.get(history);
+                    if (existing == null || lastModified.isAfter(existing.lastModified())) {
+                        byHistory.put(history, new Entry(seededId(history), name, history, cache,
+                                lastModified, 0, 0, false));
+                    }
+                } catch (IOException e) {
+                    System.err.println("[ClaimListFTB] Error reading server file: " + path);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to list server files: " + e.getMessage());
+        }
+        return new ArrayList<>(byHistory.values());
+    }
+
+    /**
+     * Stand-in ID for a server only known by its file name (stable, so it can be selected and saved).
+     */
+    private static UUID seededId(String history) {
+        return UUID.nameUUIDFromBytes(history.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,265 @@
+package com.t.claimlistftb.client;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Binary snapshot of the tracker's claim state, used as the .claims cache file.
+ *
+ * Layout (big-endian):
+ *   int magic, int version, long generation (version 2+)
+ *   int dimensionCount, then per dimension: short length + UTF-8 dimension id
+ *   int teamCount, then per team: long msb, long lsb   (team index = position + 1)
+ *   per dimension, same order: int count, long[count] sorted chunk keys, int[count] team indices
+ *
+ * Loading reads the file into a heap buffer and bulk-copies the arrays, so startup cost scales
+ * with bytes instead of per-line string parsing. Old CSV caches can be imported once.
+ */
+public class ClaimSnapshotFile {
+
+    private static final int MAGIC = 0x434C4653; // "CLFS"
+    private static final int VERSION = 2;
+
+    private ClaimSnapshotFile() {}
+
+    /**
+     * Write a snapshot atomically (temp file + move).
+     * The generation ties delta logs to the snapshot they were recorded against.
+     */
+    public static void write(Path file, ChunkStateStore.Snapshot snapshot, long generation) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        List<ChunkStateStore.DimensionSnapshot> dims = snapshot.dimensions();
+        UUID[] teamIds = snapshot.teamIds();
+
+        List<byte[]> dimNames = new ArrayList<>(dims.size());
+        long size = 24L + (teamIds.length - 1) * 16L;
+        for (ChunkStateStore.DimensionSnapshot dim : dims) {
+            byte[] name = ClaimDimensions.nameOf(dim.dimension()).getBytes(StandardCharsets.UTF_8);
+            dimNames.add(name);
+            size += 2 + name.length + 4 + dim.chunkKeys().length * 12L;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size));
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(generation);
+
+        buffer.putInt(dims.size());
+        for (byte[] name : dimNames) {
+            buffer.putShort((short) name.length);
+            buffer.put(name);
+        }
+
+        buffer.putInt(teamIds.length - 1);
+        for (int i = 1; i < teamIds.length; i++) {
+            UUID id = teamIds[i] != null ? teamIds[i] : new UUID(0, 0);
+            buffer.putLong(id.getMostSignificantBits());
+            buffer.putLong(id.getLeastSignificantBits());
+        }
+
+        // Bulk-copy the sorted arrays
+        for (ChunkStateStore.DimensionSnapshot dim : dims) {
+            long[] keys = dim.chunkKeys();
+            buffer.putInt(keys.length);
+            buffer.asLongBuffer().put(keys);
+            buffer.position(buffer.position() + keys.length * Long.BYTES);
+            buffer.asIntBuffer().put(dim.teamIndices());
+            buffer.position(buffer.position() + keys.length * Integer.BYTES);
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Load a snapshot file into the given store.
+     * Returns false (leaving the store untouched) if the file is missing, foreign or truncated.
+     */
+    public static boolean read(Path file, ChunkStateStore target) {
+        if (!Files.exists(file)) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Read onto the heap rather than mapping: a mapping outlives the channel until GC, and
+            // Windows won't let the next write() replace a file that is still mapped
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("cache file too large: " + size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+            buffer.flip();
+
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                System.err.println("[ClaimListFTB] Ignoring unrecognized cache file: " + file.getFileName());
+                return false;
+            }
+            int version = buffer.getInt();
+            if (version < 1 || version > VERSION) {
+                System.err.println("[ClaimListFTB] Ignoring cache file with unsupported version " + version);
+                return false;
+            }
+            if (version >= 2) {
+                buffer.getLong(); // generation
+            }
+
+            // Dimension table - one ResourceKey per dimension, not per chunk
+            int dimCount = buffer.getInt();
+            if (dimCount < 0 || dimCount > buffer.remaining() / 2) {
+                throw new IOException("bad dimension count: " + dimCount);
+            }
+            List<ResourceKey<Level>> dims = new ArrayList<>(dimCount);
+            for (int i = 0; i < dimCount; i++) {
+                String name = readUtf(buffer);
+                ResourceKey<Level> dimension = ClaimDimensions.parse(name);
+                if (dimension == null) {
+                    throw new IOException("Bad dimension in snapshot: " + name);
+                }
+                dims.add(dimension);
+            }
+
+            // Team table
+            int teamCount = buffer.getInt();
+            if (teamCount < 0 || teamCount * 16L > buffer.remaining()) {
+                throw new IOException("bad team count: " + teamCount);
+            }
+            UUID[] teamIds = new UUID[teamCount + 1];
+            for (int i = 1; i <= teamCount; i++) {
+                teamIds[i] = new UUID(buffer.getLong(), buffer.getLong());
+            }
+
+            // Decode everything before touching the store so a truncated file changes nothing
+            List<long[]> allKeys = new ArrayList<>(dimCount);
+            List<int[]> allOwners = new ArrayList<>(dimCount);
+            for (int i = 0; i < dimCount; i++) {
+                int count = buffer.getInt();
+                if (count < 0 || count * 12L > buffer.remaining()) {
+                    throw new IOException("bad chunk count: " + count);
+                }
+                long[] keys = new long[count];
+                int[] owners = new int[count];
+
+                buffer.asLongBuffer().get(keys);
+                buffer.position(buffer.position() + count * Long.BYTES);
+                buffer.asIntBuffer().get(owners);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+
+                for (int owner : owners) {
+                    if (owner <= 0 || owner > teamCount) {
+                        throw new IOException("team index out of range: " + owner);
+                    }
+                }
+                allKeys.add(keys);
+                allOwners.add(owners);
+            }
+
+            for (int i = 0; i < dimCount; i++) {
+                target.loadDimension(dims.get(i), allKeys.get(i), allOwners.get(i), teamIds);
+            }
+            return true;
+
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            System.err.println("[ClaimListFTB] Failed to read cache snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Read just the generation from a snapshot header.
+     * Returns -1 if the file is missing or not a snapshot; version 1 files report 0.
+     */
+    public static long readGeneration(Path file) {
+        if (!Files.exists(file)) {
+            return -1;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(16);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Keep reading until the header is full or the file ends
+            }
+            header.flip();
+            if (header.remaining() < 8 || header.getInt() != MAGIC) {
+                return -1;
+            }
+            int version = header.getInt();
+            if (version == 1) {
+                return 0;
+            }
+            return header.remaining() >= 8 && version <= VERSION ? header.getLong() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * One-time import of the old "dimension,chunk_x,chunk_z,team_id" CSV cache.
+     */
+    public static boolean importLegacyCsv(Path file, ChunkStateStore target) {
+        if (!Files.exists(file)) {
+            return false;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            // Skip header
+            String line = reader.readLine();
+
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+
+                String[] parts = line.split(",");
+                if (parts.length < 4) continue;
+
+                try {
+                    ResourceKey<Level> dimension = ClaimDimensions.parse(parts[0]);
+                    if (dimension == null) continue;
+                    int chunkX = Integer.parseInt(parts[1]);
+                    int chunkZ = Integer.parseInt(parts[2]);
+                    UUID teamId = UUID.fromString(parts[3]);
+
+                    target.put(dimension, ((long) chunkX & 0xFFFFFFFFL) | (((long) chunkZ & 0xFFFFFFFFL) << 32), teamId);
+                } catch (Exception e) {
+                    // Skip malformed lines
+                }
+            }
+            return true;
+
+        } catch (IOException e) {
+            System.err.println("[ClaimListFTB] Failed to import legacy cache: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static String readUtf(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,166 @@
+package com.t.claimlistftb.client;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.util.*;
+
+/**
+ * Diff between two claim snapshots, computed with one linear merge per dimension.
+ * Snapshot keys are already sorted, so each dimension is a single pass that emits
+ * ADD, REMOVE and TRANSFER entries in chunk-key order without per-chunk allocation.
+ * Dimensions are merged in parallel on the common fork-join pool.
+ */
+public class ClaimStateDiff {
+
+    public static final byte ADD = 0;
+    public static final byte REMOVE = 1;
+    public static final byte TRANSFER = 2;
+
+    private final ChunkStateStore.Snapshot previous;
+    private final ChunkStateStore.Snapshot current;
+    private final List<DimensionDiff> dimensions;
+
+    private ClaimStateDiff(ChunkStateStore.Snapshot previous, ChunkStateStore.Snapshot current, List<DimensionDiff> dimensions) {
+        this.previous = previous;
+        this.current = current;
+        this.dimensions = dimensions;
+    }
+
+    /**
+     * Diff two snapshots, skipping the given dimensions entirely.
+     */
+    public static ClaimStateDiff compute(ChunkStateStore.Snapshot previous, ChunkStateStore.Snapshot current,
+                                         Set<ResourceKey<Level>> skipDimensions) {
+        Map<ResourceKey<Level>, ChunkStateStore.DimensionSnapshot> prevDims = byDimension(previous);
+        Map<ResourceKey<Level>, ChunkStateStore.DimensionSnapshot> currDims = byDimension(current);
+
+        Set<ResourceKey<Level>> allDims = new LinkedHashSet<>(prevDims.keySet());
+        allDims.addAll(currDims.keySet());
+        allDims.removeAll(skipDimensions);
+
+        List<DimensionDiff> diffs = allDims.parallelStream()
+                .map(dim -> merge(dim, prevDims.get(dim), previous.teamIds(), currDims.get(dim), current.teamIds()))
+                .filter(diff -> diff.size() > 0)
+                .toList();
+
+        return new ClaimStateDiff(previous, current, diffs);
+    }
+
+    /**
+     * Visit every change, dimension by dimension, in chunk-key order.
+     */
+    public void forEach(Visitor visitor) {
+        UUID[] prevTeams = previous.teamIds();
+        UUID[] currTeams = current.teamIds();
+
+        for (DimensionDiff diff : dimensions) {
+            for (int i = 0; i < diff.size; i++) {
+                long key = diff.chunkKeys[i];
+                visitor.visit(diff.dimension, (int) key, (int) (key >> 32), diff.kinds[i],
+                        prevTeams[diff.previousTeams[i]], currTeams[diff.currentTeams[i]]);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return dimensions.isEmpty();
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * @param previousOwner null for ADD
+         * @param currentOwner null for REMOVE
+         */
+        void visit(ResourceKey<Level> dimension, int chunkX, int chunkZ, byte kind, UUID previousOwner, UUID currentOwner);
+    }
+
+    // === Merge ===
+
+    private static DimensionDiff merge(ResourceKey<Level> dimension,
+                                       ChunkStateStore.DimensionSnapshot prev, UUID[] prevTeams,
+                                       ChunkStateStore.DimensionSnapshot curr, UUID[] currTeams) {
+        long[] prevKeys = prev != null ? prev.chunkKeys() : new long[0];
+        int[] prevOwners = prev != null ? prev.teamIndices() : new int[0];
+        long[] currKeys = curr != null ? curr.chunkKeys() : new long[0];
+        int[] currOwners = curr != null ? curr.teamIndices() : new int[0];
+
+        DimensionDiff diff = new DimensionDiff(dimension, 16);
+        int p = 0;
+        int c = 0;
+
+        while (p < prevKeys.length && c < currKeys.length) {
+            long pk = prevKeys[p];
+            long ck = currKeys[c];
+            if (pk < ck) {
+                diff.add(pk, REMOVE, prevOwners[p], 0);
+                p++;
+            } else if (ck < pk) {
+                diff.add(ck, ADD, 0, currOwners[c]);
+                c++;
+            } else {
+                // Team indices come from different tables, so compare the UUIDs
+                if (!Objects.equals(prevTeams[prevOwners[p]], currTeams[currOwners[c]])) {
+                    diff.add(pk, TRANSFER, prevOwners[p], currOwners[c]);
+                }
+                p++;
+                c++;
+            }
+        }
+        for (; p < prevKeys.length; p++) {
+            diff.add(prevKeys[p], REMOVE, prevOwners[p], 0);
+        }
+        for (; c < currKeys.length; c++) {
+            diff.add(currKeys[c], ADD, 0, currOwners[c]);
+        }
+        return diff;
+    }
+
+    private static Map<ResourceKey<Level>, ChunkStateStore.DimensionSnapshot> byDimension(ChunkStateStore.Snapshot snapshot) {
+        Map<ResourceKey<Level>, ChunkStateStore.DimensionSnapshot> result = new HashMap<>();
+        for (ChunkStateStore.DimensionSnapshot dim : snapshot.dimensions()) {
+            result.put(dim.dimension(), dim);
+        }
+        return result;
+    }
+
+    /**
+     * Growable primitive columns for one dimension's changes.
+     */
+    private static class DimensionDiff {
+        final ResourceKey<Level> dimension;
+        long[] chunkKeys;
+        byte[] kinds;
+        int[] previousTeams;
+        int[] currentTeams;
+        int size = 0;
+
+        DimensionDiff(ResourceKey<Level> dimension, int capacity) {
+            this.dimension = dimension;
+            this.chunkKeys = new long[capacity];
+            this.kinds = new byte[capacity];
+            this.previousTeams = new int[capacity];
+            this.currentTeams = new int[capacity];
+        }
+
+        void add(long key, byte kind, int previousTeam, int currentTeam) {
+            if (size == chunkKeys.length) {
+                int capacity = size * 2;
+                chunkKeys = Arrays.copyOf(chunkKeys, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+                previousTeams = Arrays.copyOf(previousTeams, capacity);
+                currentTeams = Arrays.copyOf(currentTeams, capacity);
+            }
+            chunkKeys[size] = key;
+            kinds[size] = kind;
+            previousTeams[size] = previousTeam;
+            currentTeams[size] = currentTeam;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
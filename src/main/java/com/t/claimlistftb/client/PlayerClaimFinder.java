@@ -5,7 +5,6 @@ import dev.ftb.mods.ftbchunks.client.map.MapDimension;
 import dev.ftb.mods.ftbchunks.client.map.MapManager;
 import dev.ftb.mods.ftbchunks.client.map.MapRegion;
 import dev.ftb.mods.ftbteams.api.Team;
-import dev.ftb.mods.ftbteams.api.FTBTeamsAPI;
 import dev.ftb.mods.ftbteams.api.property.TeamProperties;
 import dev.ftb.mods.ftblibrary.math.XZ;
 import net.minecraft.Util;
@@ -25,7 +24,7 @@ import java.util.stream.Collectors;
  */
 public class PlayerClaimFinder {
 
-    // Cache duration in milliseconds (5 seconds)
+    // Cache duration in milliseconds (5 seconds) - only for results scanned from map regions
     private static final long CACHE_DURATION_MS = 5000L;
 
     // Cached results
@@ -33,6 +32,41 @@ public class PlayerClaimFinder {
     private static final AtomicLong lastCacheTime = new AtomicLong(0);
     private static volatile boolean cacheRefreshInProgress = false;
 
+    // What the cached map was built from. Tracker-backed results stay valid until the
+    // tracker reports a change; region scans have no events, so they still expire.
+    private static volatile boolean cachedFromTracker = false;
+    private static volatile boolean cachedAllDimensions = false;
+    private static volatile ResourceKey<Level> cachedDimension = null;
+
+    static {
+        ClaimChangeTracker.getInstance().addListener(new ClaimChangeListener() {
+            @Override
+            public void onClaimsAdded(List<ClaimEventBus.ClaimEvent> events) {
+                invalidateCache();
+            }
+
+            @Override
+            public void onClaimsRemoved(List<ClaimEventBus.ClaimEvent> events) {
+                invalidateCache();
+            }
+
+            @Override
+            public void onClaimsTransferred(List<ClaimEventBus.ClaimEvent> events) {
+                invalidateCache();
+            }
+
+            @Override
+            public void onTeamsRenamed(List<ClaimEventBus.TeamRename> renames) {
+                invalidateCache();
+            }
+
+            @Override
+            public void onSyncCompleted() {
+                invalidateCache();
+            }
+        });
+    }
+
     public record ChunkPos(int x, int z) {}
 
     public record ClaimInfo(
@@ -52,7 +86,7 @@ public class PlayerClaimFinder {
         long now = System.currentTimeMillis();
 
         // Return cached data if still valid
-        if (cachedClaimMap != null && (now - lastCacheTime.get()) < CACHE_DURATION_MS) {
+        if (cachedClaimMap != null && isCacheValid(includeAllDimensions, now)) {
             return cachedClaimMap;
         }
 
@@ -65,6 +99,23 @@ public class PlayerClaimFinder {
         return refreshCache(includeAllDimensions);
     }
 
+    private static boolean isCacheValid(boolean includeAllDimensions, long now) {
+        if (cachedAllDimensions != includeAllDimensions) {
+            return false;
+        }
+        if (!includeAllDimensions && !Objects.equals(cachedDimension, currentDimension())) {
+            return false;
+        }
+        // During the initial sync claims arrive without events, so keep the expiry until it completes
+        boolean eventDriven = cachedFromTracker && !ClaimChangeTracker.getInstance().isInitializing();
+        return eventDriven || (now - lastCacheTime.get()) < CACHE_DURATION_MS;
+    }
+
+    private static ResourceKey<Level> currentDimension() {
+        Minecraft mc = Minecraft.getInstance();
+        return mc.level != null ? mc.level.dimension() : null;
+    }
+
     /**
      * Force a cache refresh. Should be called sparingly.
      */
@@ -81,6 +132,8 @@ public class PlayerClaimFinder {
 
         try {
             Map<ClaimOwner, List<ClaimInfo>> result = buildClaimMap(includeAllDimensions);
+            cachedAllDimensions = includeAllDimensions;
+            cachedDimension = currentDimension();
             cachedClaimMap = result;
             lastCacheTime.set(System.currentTimeMillis());
             return result;
@@ -102,11 +155,13 @@ public class PlayerClaimFinder {
         if (tracker.isInitialized() && tracker.hasCachedClaims()) {
             claimsByOwner = buildClaimMapFromTracker(includeAllDimensions);
             if (!claimsByOwner.isEmpty()) {
+                cachedFromTracker = true;
                 return claimsByOwner;
             }
         }
         
         // Fallback to map regions (only has loaded regions)
+        cachedFromTracker = false;
         return buildClaimMapFromRegions(includeAllDimensions);
     }
     
@@ -175,35 +230,23 @@ public class PlayerClaimFinder {
     }
     
     /**
-     * Create a ClaimOwner from a team ID using FTB Teams API
+     * Create a ClaimOwner from a team ID using the cached FTB Teams metadata
      */
     private static ClaimOwner createClaimOwnerFromTeamId(UUID teamId) {
         if (teamId == null || Util.NIL_UUID.equals(teamId)) {
             return null;
         }
         
-        try {
-            return FTBTeamsAPI.api()
-                .getClientManager()
-                .getTeamByID(teamId)
-                .map(team -> {
-                    String teamName = team.getProperty(TeamProperties.DISPLAY_NAME);
-                    Set<UUID> members = team.getMembers();
-                    
-                    if (members.size() == 1) {
-                        return ClaimOwner.forPlayer(teamName, teamId);
-                    } else {
-                        return ClaimOwner.forTeam(teamName, teamId);
-                    }
-                })
-                .orElseGet(() -> {
-                    // Team not found in API, create placeholder
-                    String shortId = teamId.toString().substring(0, 8);
-                    return ClaimOwner.forPlayer(shortId, teamId);
-                });
-        } catch (Exception e) {
-            String shortId = teamId.toString().substring(0, 8);
-            return ClaimOwner.forPlayer(shortId, teamId);
+        TeamInfoCache.TeamInfo info = TeamInfoCache.get(teamId);
+        if (!info.known()) {
+            // Team not found in API, create placeholder
+            return ClaimOwner.forPlayer(info.displayName(), teamId);
+        }
+
+        if (info.memberCount() == 1) {
+            return ClaimOwner.forPlayer(info.displayName(), teamId);
+        } else {
+            return ClaimOwner.forTeam(info.displayName(), teamId);
         }
     }
 
@@ -0,0 +1,65 @@
+package com.t.claimlistftb.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Interns team UUIDs to small int indices.
+ * Index 0 is reserved for "no team" so it can mark empty slots in ChunkClaimMap.
+ * Not thread-safe - callers synchronize externally.
+ */
+public class TeamIdTable {
+
+    private final Map<UUID, Integer> indices = new HashMap<>();
+    private final List<UUID> ids = new ArrayList<>();
+
+    public TeamIdTable() {
+        ids.add(null);
+    }
+
+    /**
+     * Get the index for a team, assigning a new one if needed.
+     */
+    public int intern(UUID teamId) {
+        Integer index = indices.get(teamId);
+        if (index != null) {
+            return index;
+        }
+
+        int newIndex = ids.size();
+        ids.add(teamId);
+        indices.put(teamId, newIndex);
+        return newIndex;
+    }
+
+    /**
+     * Get the index for a team, or NO_TEAM if it was never interned.
+     */
+    public int indexOf(UUID teamId) {
+        Integer index = indices.get(teamId);
+        return index != null ? index : ChunkClaimMap.NO_TEAM;
+    }
+
+    /**
+     * Get the team UUID for an index (null for NO_TEAM).
+     */
+    public UUID get(int index) {
+        return ids.get(index);
+    }
+
+    /**
+     * Number of slots including the reserved index 0.
+     */
+    public int capacity() {
+        return ids.size();
+    }
+
+    public void clear() {
+        indices.clear();
+        ids.clear();
+        ids.add(null);
+    }
+}
@@ -0,0 +1,186 @@
+package com.t.claimlistftb.client;
+
+import dev.ftb.mods.ftbteams.api.FTBTeamsAPI;
+import dev.ftb.mods.ftbteams.api.Team;
+import dev.ftb.mods.ftbteams.api.client.ClientTeamManager;
+import dev.ftb.mods.ftbteams.api.event.TeamEvent;
+import dev.ftb.mods.ftbteams.api.property.TeamProperties;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches resolved team metadata (display name, member count, color) by team ID.
+ * Resolving a team through FTB Teams builds a name Component every time, which adds up
+ * when thousands of changes are recorded at once.
+ * Entries are dropped when FTB Teams reports property or member changes, or when the
+ * client team manager is replaced by a full sync.
+ * Names seen this session are remembered separately so renames can be reported to the tracker.
+ * FTB Teams' client manager is only safe on the client thread, so get() and everything that resolves
+ * belong there; other threads (the tracker's ingest thread) read names through knownName().
+ */
+public class TeamInfoCache {
+
+    private static final Map<UUID, TeamInfo> CACHE = new ConcurrentHashMap<>();
+
+    // Last display name seen per team - survives invalidation, cleared by reset()
+    private static final Map<UUID, String> KNOWN_NAMES = new ConcurrentHashMap<>();
+
+    // The client manager the cache was filled from - a new one means a full resync
+    private static volatile ClientTeamManager cachedManager = null;
+
+    static {
+        registerListeners();
+    }
+
+    /**
+     * Resolved metadata for a team.
+     * Teams FTB Teams doesn't know about are returned with known = false and a short-id name.
+     */
+    public record TeamInfo(
+            UUID teamId,
+            String displayName,
+            int memberCount,
+            int color,
+            Set<UUID> members,
+            boolean known
+    ) {}
+
+    private TeamInfoCache() {}
+
+    /**
+     * Get metadata for a team. Known teams are cached until invalidated.
+     */
+    public static TeamInfo get(UUID teamId) {
+        ClientTeamManager manager = getManager();
+        if (manager != cachedManager) {
+            swapManager(manager);
+        }
+
+        TeamInfo cached = CACHE.get(teamId);
+        if (cached != null) {
+            return cached;
+        }
+
+        TeamInfo info = resolve(manager, teamId);
+        // Don't cache misses - the team may simply not have been synced yet
+        if (info.known()) {
+            CACHE.put(teamId, info);
+
+            String oldName = KNOWN_NAMES.put(teamId, info.displayName());
+            if (oldName != null && !oldName.equals(info.displayName())) {
+                ClaimChangeTracker.getInstance().onTeamRenamed(teamId, oldName, info.displayName());
+            }
+        }
+        return info;
+    }
+
+    /**
+     * The last name resolved for a team this session, without asking FTB Teams (safe from any thread).
+     * Falls back to the first 8 characters of the ID for teams never resolved.
+     */
+    public static String knownName(UUID teamId) {
+        if (teamId == null) return "Unknown";
+        String name = KNOWN_NAMES.get(teamId);
+        return name != null ? name : teamId.toString().substring(0, 8);
+    }
+
+    public static void invalidateAll() {
+        CACHE.clear();
+    }
+
+    /**
+     * Forget everything, including remembered names (when switching servers).
+     */
+    public static synchronized void reset() {
+        CACHE.clear();
+        KNOWN_NAMES.clear();
+        cachedManager = null;
+    }
+
+    /**
+     * Start over with a new client manager. The check and the clear happen together, so a reset
+     * or a second caller can't leave entries from the old manager behind.
+     */
+    private static synchronized void swapManager(ClientTeamManager manager) {
+        if (manager != cachedManager) {
+            CACHE.clear();
+            cachedManager = manager;
+        }
+    }
+
+    /**
+     * Re-resolve every team seen so far, which reports any renames.
+     */
+    private static void refreshKnownNames() {
+        invalidateAll();
+        for (UUID teamId : Set.copyOf(KNOWN_NAMES.keySet())) {
+            get(teamId);
+        }
+    }
+
+    private static TeamInfo resolve(ClientTeamManager manager, UUID teamId) {
+        String shortId = teamId.toString().substring(0, 8);
+        if (manager == null) {
+            return unknown(teamId, shortId);
+        }
+
+        try {
+            return manager.getTeamByID(teamId)
+                    .map(team -> fromTeam(team, shortId))
+                    .orElseGet(() -> unknown(teamId, shortId));
+        } catch (Exception e) {
+            return unknown(teamId, shortId);
+        }
+    }
+
+    private static TeamInfo fromTeam(Team team, String shortId) {
+        String name = team.getProperty(TeamProperties.DISPLAY_NAME);
+        if (name == null || name.isEmpty()) {
+            var nameComponent = team.getName();
+            name = nameComponent != null ? nameComponent.getString() : null;
+        }
+        if (name == null || name.isEmpty()) {
+            name = shortId;
+        }
+
+        int color = 0xFFFFFF;
+        try {
+            color = team.getProperty(TeamProperties.COLOR).rgb();
+        } catch (Exception e) {
+            // Color is cosmetic - keep the default
+        }
+
+        Set<UUID> members = Set.copyOf(team.getMembers());
+        return new TeamInfo(team.getTeamId(), name, members.size(), color, members, true);
+    }
+
+    private static TeamInfo unknown(UUID teamId, String shortId) {
+        return new TeamInfo(teamId, shortId, 0, 0xFFFFFF, Set.of(), false);
+    }
+
+    private static ClientTeamManager getManager() {
+        try {
+            return FTBTeamsAPI.api().getClientManager();
+        } catch (Exception | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Invalidate on FTB Teams change events. Property changes arrive on the client;
+     * party join/leave only fire where the server runs (singleplayer/LAN), otherwise
+     * member changes reach us as a resync that replaces the client manager.
+     */
+    private static void registerListeners() {
+        try {
+            TeamEvent.CLIENT_PROPERTIES_CHANGED.register(event -> refreshKnownNames());
+            TeamEvent.PLAYER_JOINED_PARTY.register(event -> invalidateAll());
+            TeamEvent.PLAYER_LEFT_PARTY.register(event -> invalidateAll());
+        } catch (Exception | LinkageError e) {
+            // FTB Teams is optional - without it nothing can change
+        }
+    }
+}
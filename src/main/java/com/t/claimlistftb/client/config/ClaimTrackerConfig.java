@@ -20,6 +20,9 @@ public class ClaimTrackerConfig {
 
     // Default values
     private static final long DEFAULT_CHECK_INTERVAL = 60; // seconds
+    private static final long DEFAULT_COALESCE_WINDOW = 30; // seconds
+    private static final long DEFAULT_COMPRESS_AFTER_DAYS = 30;
+    private static final long MIN_COMPRESS_AFTER_DAYS = 2; // Today's and yesterday's segments stay plain
     private static final boolean DEFAULT_TRACKING_ENABLED = true;
     private static final boolean DEFAULT_USE_24_HOUR_TIME = false;
     private static final boolean DEFAULT_USE_DD_MM_FORMAT = false;
@@ -141,6 +144,37 @@ public class ClaimTrackerConfig {
         save();
     }
 
+    /**
+     * How long a chunk's changes are held and merged before being written to history.
+     * Claiming and unclaiming within the window cancels out; 0 writes every change.
+     */
+    public static long getCoalesceWindowSeconds() {
+        if (config.contains("coalesce_window")) {
+            return config.getLong("coalesce_window");
+        }
+        return DEFAULT_COALESCE_WINDOW;
+    }
+
+    public static void setCoalesceWindowSeconds(long seconds) {
+        config.putLong("coalesce_window", seconds);
+        save();
+    }
+
+    /**
+     * Age in days after which a history segment is compressed on the next join.
+     */
+    public static long getCompressAfterDays() {
+        if (config.contains("compress_after_days")) {
+            return Math.max(MIN_COMPRESS_AFTER_DAYS, config.getLong("compress_after_days"));
+        }
+        return DEFAULT_COMPRESS_AFTER_DAYS;
+    }
+
+    public static void setCompressAfterDays(long days) {
+        config.putLong("compress_after_days", Math.max(MIN_COMPRESS_AFTER_DAYS, days));
+        save();
+    }
+
     public static boolean isTrackingEnabled() {
         if (config.contains("tracking_enabled")) {
             return config.getBoolean("tracking_enabled");
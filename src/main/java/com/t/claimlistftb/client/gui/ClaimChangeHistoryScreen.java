@@ -1,8 +1,15 @@
 package com.t.claimlistftb.client.gui;
 
+import com.t.claimlistftb.client.ClaimActivityRollups;
+import com.t.claimlistftb.client.ClaimChangeListener;
 import com.t.claimlistftb.client.ClaimChangeTracker;
+import com.t.claimlistftb.client.ClaimDimensions;
+import com.t.claimlistftb.client.ClaimHistoryRepository;
+import com.t.claimlistftb.client.ClaimHistoryStore;
+import com.t.claimlistftb.client.ClaimServerManifest;
 import com.t.claimlistftb.client.config.ClaimTrackerConfig;
 import com.t.claimlistftb.client.ClaimChangeReader;
+import com.t.claimlistftb.client.ClaimChangeTable;
 import com.t.claimlistftb.client.ClaimChangeGrouper;
 import dev.ftb.mods.ftbchunks.client.gui.LargeMapScreen;
 import dev.ftb.mods.ftblibrary.icon.Color4I;
@@ -19,6 +26,7 @@ import net.minecraft.world.level.Level;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.*;
 
 public class ClaimChangeHistoryScreen extends BaseScreen {
@@ -28,6 +36,7 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
     private SimpleButton refreshButton;
     private SimpleButton settingsButton;
     private SimpleButton serverSelectButton;
+    private SimpleButton nearbyButton;
     private SimpleButton closeButton;
     private Panel scrollContent;
 
@@ -50,17 +59,42 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
 
     // Current server being viewed
     private UUID currentServerId;
-    private List<ClaimChangeReader.ClaimChange> allChanges = new ArrayList<>();
 
-    // Track last loaded data for change detection
-    private int lastChangeCount = 0;
+    // Shared in-memory history for the viewed server; older day segments are only read when their period is expanded
+    private ClaimHistoryRepository.ServerHistory serverHistory;
+    private ClaimChangeTable.View allChanges = null;
+    private ClaimChangeTable.View unfilteredChanges = null;
+
+    // "Near here" filter: only changes within nearbyRadius chunks of this chunk (null dimension = off)
+    private static final int[] NEARBY_RADII = {4, 8, 16, 32, 64};
+    private ResourceKey<Level> nearbyDimension;
+    private int nearbyChunkX;
+    private int nearbyChunkZ;
+    private int nearbyRadius = 16;
+
+    // Last countdown redraw while the tracker is initializing
     private long lastRefreshTime = 0;
 
     // Cache for grouped changes to prevent lag
     private Map<String, List<ClaimChangeGrouper.ChangeGroup>> groupedChangesCache = new HashMap<>();
 
-    // OPTIMIZED: Increased from 5 seconds to 30 seconds to reduce lag
-    private static final long AUTO_REFRESH_INTERVAL_MS = 30000; // 30 seconds
+    // The tracker appends to the shared history as it writes changes; just pick up the new view
+    private final ClaimChangeListener trackerListener = new ClaimChangeListener() {
+        @Override
+        public void onHistoryAppended() {
+            if (updateShownChanges() && scrollContent != null) {
+                scrollContent.refreshWidgets();
+            }
+        }
+
+        @Override
+        public void onSyncCompleted() {
+            // Offline changes already arrived as claim events - just drop the countdown
+            if (scrollContent != null) {
+                scrollContent.refreshWidgets();
+            }
+        }
+    };
 
     public ClaimChangeHistoryScreen(BaseScreen parent) {
         this.parentScreen = parent;
@@ -79,13 +113,8 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
 
         setPos((screenWidth - width) / 2, (screenHeight - height) / 2);
         
-        // Register callback for when sync completes so we can refresh
-        ClaimChangeTracker.getInstance().setOnSyncCompleteCallback(() -> {
-            if (scrollContent != null) {
-                loadServerChanges();
-                scrollContent.refreshWidgets();
-            }
-        });
+        // Listen for live changes and sync completion
+        ClaimChangeTracker.getInstance().addListener(trackerListener);
 
         // Back button - top left (returns to previous screen)
         backButton = new SimpleButton(this, Component.empty(), Icons.BACK, (btn, mouse) -> closeGui());
@@ -111,15 +140,14 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
                         return;
                     }
 
-                    // Force a check now
+                    // Force a check now (writes everything pending, which also appends it to the shared history)
                     tracker.forceCheck();
-                    // Reload changes and check if anything changed
-                    int oldCount = allChanges.size();
-                    loadServerChanges();
-                    int newCount = allChanges.size();
+                    if (serverHistory != null) {
+                        serverHistory.refresh();
+                    }
 
                     // Only refresh widgets if there was actually a change
-                    if (oldCount != newCount && scrollContent != null) {
+                    if (updateShownChanges() && scrollContent != null) {
                         scrollContent.refreshWidgets();
                     }
                 }) {
@@ -147,6 +175,16 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
                 (btn, mouse) -> openServerSelector());
         add(serverSelectButton);
 
+        // Nearby filter button (compass icon) - left of refresh
+        nearbyButton = new SimpleButton(this,
+                Arrays.asList(
+                        Component.literal("Nearby Changes"),
+                        Component.literal("Only show changes near you or the map cursor").withStyle(net.minecraft.ChatFormatting.GRAY)
+                ),
+                Icons.COMPASS,
+                (btn, mouse) -> openNearbyMenu());
+        add(nearbyButton);
+
         // Settings button - top right, left of close
         settingsButton = new SimpleButton(this,
                 Arrays.asList(
@@ -186,7 +224,6 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
 
         // Determine which server to show
         loadServerChanges();
-        lastChangeCount = allChanges.size();
 
         // Scrollable content area
         scrollContent = new Panel(this) {
@@ -226,7 +263,24 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
                 }
 
                 // Build widgets here - don't call buildChangeWidgets which tries to add to 'this'
-                if (allChanges == null || allChanges.isEmpty()) {
+                // Group loaded changes by time period
+                Map<ClaimChangeReader.TimePeriod, ClaimChangeTable.View> byPeriod = allChanges != null
+                        ? ClaimChangeReader.groupByTimePeriod(allChanges) : Map.of();
+                LocalDateTime now = LocalDateTime.now();
+
+                // For each period (most recent first), create an expandable section
+                for (ClaimChangeReader.TimePeriod period : ClaimChangeReader.TimePeriod.values()) {
+                    ClaimChangeTable.View periodChanges = byPeriod.get(period);
+                    if (periodChanges != null && !periodChanges.isEmpty()) {
+                        add(new TimePeriodWidget(this, period, periodChanges));
+                    } else if (serverHistory != null && !serverHistory.isLoadedFrom(period.getStart(now))
+                            && serverHistory.getStore().hasChangesBetween(period.getStart(now), period.getEnd(now))) {
+                        // Not read yet - the manifest says there is something; loaded on expand
+                        add(new TimePeriodWidget(this, period, ClaimChangeTable.View.EMPTY));
+                    }
+                }
+
+                if (getWidgets().isEmpty()) {
                     // Show "no changes" message
                     add(new Widget(this) {
                         @Override
@@ -236,26 +290,6 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
                             theme.drawString(graphics, text, x + (w - textWidth) / 2, y + 10, Color4I.rgb(0x888888), 0);
                         }
                     });
-                    return;
-                }
-
-                // Group changes by time period
-                Map<ClaimChangeReader.TimePeriod, List<ClaimChangeReader.ClaimChange>> byPeriod =
-                        ClaimChangeReader.groupByTimePeriod(allChanges);
-
-                if (byPeriod == null || byPeriod.isEmpty()) {
-                    return;
-                }
-
-                // Sort periods (most recent first) - create a copy to avoid modification issues
-                List<ClaimChangeReader.TimePeriod> periods = new ArrayList<>(byPeriod.keySet());
-
-                // For each period, create an expandable section
-                for (ClaimChangeReader.TimePeriod period : periods) {
-                    List<ClaimChangeReader.ClaimChange> periodChanges = byPeriod.get(period);
-                    if (periodChanges == null || periodChanges.isEmpty()) continue;
-
-                    add(new TimePeriodWidget(this, period, periodChanges));
                 }
             }
 
@@ -307,6 +341,7 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
     @Override
     public void alignWidgets() {
         backButton.setPosAndSize(5, 5, 20, 20);
+        nearbyButton.setPosAndSize(width - 121, 5, 20, 20);
         refreshButton.setPosAndSize(width - 97, 5, 20, 20);
         serverSelectButton.setPosAndSize(width - 73, 5, 20, 20);
         settingsButton.setPosAndSize(width - 49, 5, 20, 20);
@@ -324,8 +359,8 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
         if (currentServerId != null && scrollContent != null) {
             SERVER_SCROLL_POSITIONS.put(currentServerId, scrollContent.getScrollY());
         }
-        // Clear sync callback when screen closes
-        ClaimChangeTracker.getInstance().setOnSyncCompleteCallback(null);
+        // Stop listening when screen closes
+        ClaimChangeTracker.getInstance().removeListener(trackerListener);
         super.onClosed();
     }
 
@@ -333,6 +368,10 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
     public void drawBackground(GuiGraphics graphics, Theme theme, int x, int y, int w, int h) {
         Color4I.rgb(0x1E1E1E).withAlpha(220).draw(graphics, x, y, w, h);
         theme.drawString(graphics, "History", x + w / 2, y + 10, Color4I.WHITE, Theme.CENTERED);
+        if (nearbyDimension != null) {
+            String filter = "Within " + nearbyRadius + " chunks of " + (nearbyChunkX << 4) + ", " + (nearbyChunkZ << 4);
+            theme.drawString(graphics, filter, x + w / 2, y + 20, Color4I.rgb(0x888888), Theme.CENTERED);
+        }
     }
 
     @Override
@@ -349,26 +388,6 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
                     scrollContent.refreshWidgets();
                 }
             }
-            return; // Skip normal auto-update logic during initialization
-        }
-
-        // OPTIMIZED: Reduced auto-update frequency from 5s to 30s
-        // Auto-update if changes are detected and only "past 7 days" is expanded
-        if (System.currentTimeMillis() - lastRefreshTime > AUTO_REFRESH_INTERVAL_MS) {
-            lastRefreshTime = System.currentTimeMillis();
-
-            // Only auto-update if exactly one period is expanded and it's "past_7_days"
-            if (expandedPeriods.size() == 1 && expandedPeriods.contains("PAST_7_DAYS")) {
-                int oldCount = allChanges.size();
-                loadServerChanges();
-                int newCount = allChanges.size();
-
-                // If there was a change, refresh
-                if (oldCount != newCount && scrollContent != null) {
-                    scrollContent.refreshWidgets();
-                    lastChangeCount = newCount;
-                }
-            }
         }
     }
 
@@ -403,6 +422,12 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
             items.add(new ContextMenuItem(Component.literal("Check Interval (" + currentInterval + "s)"), Icons.SETTINGS, b -> {
                 openCheckIntervalMenu();
             }));
+
+            long currentWindow = ClaimTrackerConfig.getCoalesceWindowSeconds();
+            String windowLabel = currentWindow > 0 ? currentWindow + "s" : "Off";
+            items.add(new ContextMenuItem(Component.literal("Merge Window (" + windowLabel + ")"), Icons.SETTINGS, b -> {
+                openCoalesceWindowMenu();
+            }));
         }
 
         // Enable/Disable tracking toggle
@@ -537,10 +562,152 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
         openContextMenu(menu);
     }
 
+    private void openCoalesceWindowMenu() {
+        List<ContextMenuItem> items = new ArrayList<>();
+
+        long current = ClaimTrackerConfig.getCoalesceWindowSeconds();
+
+        // Add options: off, 10s, 30s, 1m, 5m
+        long[] windows = {0, 10, 30, 60, 300};
+        String[] labels = {"Off", "10s", "30s", "1m", "5m"};
+
+        for (int i = 0; i < windows.length; i++) {
+            long window = windows[i];
+            String label = labels[i];
+            Icon icon = (window == current) ? Icons.ACCEPT : Icons.ACCEPT_GRAY;
+
+            items.add(new ContextMenuItem(Component.literal(label), icon, b -> {
+                ClaimTrackerConfig.setCoalesceWindowSeconds(window);
+                // Don't close menu
+            }));
+        }
+
+        ContextMenu menu = new ContextMenu(this, items);
+        openContextMenu(menu);
+    }
+
+    private void openNearbyMenu() {
+        List<ContextMenuItem> items = new ArrayList<>();
+        Minecraft mc = Minecraft.getInstance();
+
+        if (nearbyDimension != null) {
+            items.add(new ContextMenuItem(Component.literal("Show All Changes"), Icons.CANCEL, b -> {
+                setNearbyFilter(null, 0, 0);
+                closeContextMenu();
+            }));
+        }
+
+        // Around the player's current chunk
+        if (mc.player != null && mc.level != null) {
+            items.add(new ContextMenuItem(Component.literal("Near My Position"), Icons.PLAYER, b -> {
+                setNearbyFilter(mc.level.dimension(), mc.player.chunkPosition().x, mc.player.chunkPosition().z);
+                closeContextMenu();
+            }));
+        }
+
+        // Around the block last hovered on the map this screen was opened from
+        LargeMapScreen mapScreen = parentScreen instanceof PlayerClaimListScreen claimList ? claimList.getParentMapScreen() : null;
+        if (mapScreen != null) {
+            com.t.claimlistftb.mixin.LargeMapScreenAccessor accessor = (com.t.claimlistftb.mixin.LargeMapScreenAccessor) mapScreen;
+            if (accessor.getDimension() != null && accessor.getRegionPanel() != null) {
+                items.add(new ContextMenuItem(Component.literal("Near Map Cursor"), Icons.COMPASS, b -> {
+                    com.t.claimlistftb.mixin.RegionMapPanelAccessor panel =
+                            (com.t.claimlistftb.mixin.RegionMapPanelAccessor) accessor.getRegionPanel();
+                    setNearbyFilter(accessor.getDimension().dimension, panel.getBlockX() >> 4, panel.getBlockZ() >> 4);
+                    closeContextMenu();
+                }));
+            }
+        }
+
+        items.add(new ContextMenuItem(Component.literal("Radius (" + nearbyRadius + " chunks)"), Icons.SETTINGS, b -> {
+            openNearbyRadiusMenu();
+        }));
+
+        ContextMenu menu = new ContextMenu(this, items);
+        openContextMenu(menu);
+    }
+
+    private void openNearbyRadiusMenu() {
+        List<ContextMenuItem> items = new ArrayList<>();
+
+        for (int radius : NEARBY_RADII) {
+            Icon icon = (radius == nearbyRadius) ? Icons.ACCEPT : Icons.ACCEPT_GRAY;
+
+            items.add(new ContextMenuItem(Component.literal(radius + " chunks"), icon, b -> {
+                nearbyRadius = radius;
+                if (nearbyDimension != null) {
+                    setNearbyFilter(nearbyDimension, nearbyChunkX, nearbyChunkZ);
+                }
+                // Don't close menu
+            }));
+        }
+
+        ContextMenu menu = new ContextMenu(this, items);
+        openContextMenu(menu);
+    }
+
+    /**
+     * Only show changes within nearbyRadius chunks of a chunk (null dimension shows everything).
+     */
+    private void setNearbyFilter(ResourceKey<Level> dimension, int chunkX, int chunkZ) {
+        nearbyDimension = dimension;
+        nearbyChunkX = chunkX;
+        nearbyChunkZ = chunkZ;
+
+        // Force the filter to be re-applied to the current view
+        unfilteredChanges = null;
+        updateShownChanges();
+        if (scrollContent != null) {
+            scrollContent.setScrollY(0);
+            scrollContent.refreshWidgets();
+        }
+    }
+
     private void openServerSelector() {
-        // TODO: Implement server selector
-        // For now, just close any open menu
-        closeContextMenu();
+        List<ContextMenuItem> items = new ArrayList<>();
+        ClaimChangeTracker tracker = ClaimChangeTracker.getInstance();
+        java.time.format.DateTimeFormatter dateFormat = java.time.format.DateTimeFormatter.ofPattern(
+                ClaimTrackerConfig.useDDMMFormat() ? "dd-MM-yyyy" : "MM-dd-yyyy");
+
+        // Every server in one timeline
+        items.add(new ContextMenuItem(Component.literal("All Servers"), Icons.GLOBE, b -> {
+            closeContextMenu();
+            if (currentServerId != null && scrollContent != null) {
+                SERVER_SCROLL_POSITIONS.put(currentServerId, scrollContent.getScrollY());
+            }
+            new MultiServerHistoryScreen(this).openGui();
+        }));
+
+        for (ClaimChangeReader.ServerInfo server : ClaimChangeReader.getAvailableServers(tracker.getChangesFolder())) {
+            UUID serverId = server.serverId();
+            Icon icon = serverId.equals(currentServerId) ? Icons.ACCEPT : Icons.ACCEPT_GRAY;
+            String label = server.serverName() + " (" + server.lastModified().format(dateFormat)
+                    + (server.rows() > 0 ? ", " + server.rows() + " changes" : "") + ")";
+
+            items.add(new ContextMenuItem(Component.literal(label), icon, b -> {
+                closeContextMenu();
+                if (serverId.equals(currentServerId)) {
+                    return;
+                }
+                if (currentServerId != null && scrollContent != null) {
+                    SERVER_SCROLL_POSITIONS.put(currentServerId, scrollContent.getScrollY());
+                }
+                ClaimTrackerConfig.setCurrentServerId(serverId.toString());
+                currentServerId = null;
+                loadServerChanges();
+                if (scrollContent != null) {
+                    scrollContent.refreshWidgets();
+                    scrollContent.setScrollY(SERVER_SCROLL_POSITIONS.getOrDefault(serverId, 0.0));
+                }
+            }));
+        }
+
+        if (items.size() == 1) {
+            items.set(0, new ContextMenuItem(Component.literal("No saved servers"), Icons.CANCEL, b -> closeContextMenu()));
+        }
+
+        ContextMenu menu = new ContextMenu(this, items);
+        openContextMenu(menu);
     }
 
     /**
@@ -578,59 +745,70 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
             expandedPeriods = SERVER_EXPANDED_PERIODS.computeIfAbsent(currentServerId, k -> new HashSet<>());
             expandedOwners = SERVER_EXPANDED_OWNERS.computeIfAbsent(currentServerId, k -> new HashSet<>());
 
-            Path csvFile = findServerChangesFile(tracker.getChangesFolder(), currentServerId);
-
-            if (csvFile != null && Files.exists(csvFile)) {
-                List<ClaimChangeReader.ClaimChange> loadedChanges = ClaimChangeReader.readChanges(csvFile);
-
-                // Filter out BASELINE entries - we only want actual changes
-                // Create mutable ArrayList for sorting
-                allChanges = new ArrayList<>(loadedChanges.stream()
-                        .filter(change -> change.type() != ClaimChangeReader.ChangeType.BASELINE)
-                        .toList());
+            UUID serverId = currentServerId;
+            serverHistory = ClaimHistoryRepository.getInstance().get(serverId, () -> findServerHistory(tracker, serverId));
 
-                // Sort by timestamp descending (most recent first)
-                allChanges.sort((a, b) -> b.timestamp().compareTo(a.timestamp()));
-            } else {
-                allChanges = new ArrayList<>();
+            // Only read the segments the expanded periods need (at least the past 24 hours)
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime from = ClaimChangeReader.TimePeriod.PAST_24_HOURS.getStart(now);
+            for (ClaimChangeReader.TimePeriod period : ClaimChangeReader.TimePeriod.values()) {
+                if (expandedPeriods.contains(period.name())) {
+                    LocalDateTime start = period.getStart(now);
+                    from = (start == null || start.isBefore(from)) ? start : from;
+                }
             }
-
-            // Clear the group cache when loading new data
-            groupedChangesCache.clear();
+            if (serverHistory != null) {
+                serverHistory.ensureLoaded(from);
+            }
+            updateShownChanges();
         } else {
-            allChanges = new ArrayList<>();
+            serverHistory = null;
+            updateShownChanges();
             expandedPeriods = new HashSet<>();
             expandedOwners = new HashSet<>();
         }
     }
 
     /**
-     * Finds the changes.csv file for a given server ID
+     * Show the shared history's current view, narrowed by the nearby filter if one is set.
+     * @return true if it changed since last shown
      */
-    private Path findServerChangesFile(Path changesFolder, UUID serverId) {
-        try {
-            if (!Files.exists(changesFolder)) {
-                System.err.println("[ClaimListFTB] Changes folder does not exist: " + changesFolder);
-                return null;
-            }
+    private boolean updateShownChanges() {
+        ClaimChangeTable.View view = serverHistory != null ? serverHistory.view() : null;
+        if (view == unfilteredChanges && view != null) {
+            return false;
+        }
 
-            // Get short UUID (first 8 chars)
-            String shortUuid = serverId.toString().substring(0, 8);
+        unfilteredChanges = view;
+        allChanges = view != null && nearbyDimension != null
+                ? ClaimChangeReader.changesNear(view, nearbyDimension, nearbyChunkX, nearbyChunkZ, nearbyRadius)
+                : view;
 
-            // Search for files ending with "-<shortUuid>.csv"
-            java.util.stream.Stream<Path> files = Files.list(changesFolder);
-            for (Path file : files.filter(p -> p.toString().endsWith(".csv")).toList()) {
-                String fileName = file.getFileName().toString();
-                if (fileName.endsWith("-" + shortUuid + ".csv")) {
-                    return file;
-                }
-            }
+        // Clear the group cache when loading new data
+        groupedChangesCache.clear();
+        return true;
+    }
 
-        } catch (Exception e) {
-            System.err.println("[ClaimListFTB] Error finding server changes: " + e.getMessage());
+    /**
+     * Finds the history for a given server ID.
+     * The connected server's history comes from the tracker; others are looked up in the
+     * folder's server manifest (migrating an old single CSV if that's all there is).
+     */
+    static ClaimHistoryStore findServerHistory(ClaimChangeTracker tracker, UUID serverId) {
+        if (serverId.equals(tracker.getCurrentServerId()) && tracker.getHistoryStore() != null) {
+            return tracker.getHistoryStore();
+        }
+
+        Path changesFolder = tracker.getChangesFolder();
+        ClaimServerManifest.Entry entry = ClaimServerManifest.find(changesFolder, serverId);
+        if (entry == null) {
+            return null;
         }
 
-        return null;
+        Path historyDir = entry.historyDir(changesFolder);
+        String history = entry.history();
+        Path legacyFile = changesFolder.resolve(history.substring(0, history.length() - ClaimHistoryStore.DIRECTORY_SUFFIX.length()) + ".csv");
+        return ClaimHistoryStore.open(historyDir, Files.exists(legacyFile) ? legacyFile : null);
     }
 
     /**
@@ -638,16 +816,27 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
      */
     private class TimePeriodWidget extends Widget {
         private final ClaimChangeReader.TimePeriod period;
-        private final List<ClaimChangeReader.ClaimChange> changes;
+        private final ClaimChangeTable.View changes;
         private final List<OwnerChangeWidget> ownerWidgets = new ArrayList<>();
+        private final ClaimActivityRollups.Totals totals;
 
-        public TimePeriodWidget(Panel panel, ClaimChangeReader.TimePeriod period, List<ClaimChangeReader.ClaimChange> changes) {
+        public TimePeriodWidget(Panel panel, ClaimChangeReader.TimePeriod period, ClaimChangeTable.View changes) {
             super(panel);
             this.period = period;
             this.changes = changes;
 
+            // Header counts come from the hourly rollups, so unloaded periods get them too;
+            // the nearby filter needs the rows themselves
+            if (nearbyDimension == null && serverHistory != null) {
+                LocalDateTime now = LocalDateTime.now();
+                this.totals = serverHistory.getStore().getRollups().totals(period.getStart(now), period.getEnd(now), null, null);
+            } else {
+                ClaimChangeReader.ChangeCount counts = ClaimChangeReader.countChanges(changes);
+                this.totals = new ClaimActivityRollups.Totals(counts.added(), counts.removed(), 0);
+            }
+
             // Group by owner
-            Map<ClaimChangeReader.OwnerKey, List<ClaimChangeReader.ClaimChange>> byOwner =
+            Map<ClaimChangeReader.OwnerKey, ClaimChangeTable.View> byOwner =
                     ClaimChangeReader.groupByOwner(changes);
 
             // Sort owners: teams first, then alphabetically
@@ -693,6 +882,22 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
             // Period name
             theme.drawString(graphics, period.getDisplayName(), x + 20, y + 6, Color4I.WHITE, 0);
 
+            // Period totals, right-aligned: "(+X) (-Y)" plus transfers if any
+            if (!totals.isEmpty()) {
+                int countX = x + w - 4;
+                if (totals.transferred() > 0) {
+                    String transferText = " (" + totals.transferred() + " moved)";
+                    countX -= theme.getStringWidth(transferText);
+                    theme.drawString(graphics, transferText, countX, y + 6, Color4I.rgb(0xAAAA00), 0);
+                }
+                String removeText = "(-" + totals.removed() + ")";
+                countX -= theme.getStringWidth(removeText);
+                theme.drawString(graphics, removeText, countX, y + 6, Color4I.rgb(0xFF5555), 0);
+                String addText = "(+" + totals.added() + ") ";
+                countX -= theme.getStringWidth(addText);
+                theme.drawString(graphics, addText, countX, y + 6, Color4I.rgb(0x55FF55), 0);
+            }
+
             // Draw child widgets if expanded
             if (expanded) {
                 int childY = y + 20;
@@ -719,6 +924,11 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
                         expandedPeriods.remove(period.name());
                     } else {
                         expandedPeriods.add(period.name());
+                        // Read this period's segments if they aren't loaded yet
+                        if (serverHistory != null) {
+                            serverHistory.ensureLoaded(period.getStart(LocalDateTime.now()));
+                            updateShownChanges();
+                        }
                     }
                     if (scrollContent != null) {
                         scrollContent.refreshWidgets();
@@ -752,11 +962,11 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
      */
     private class OwnerChangeWidget extends Widget {
         private final ClaimChangeReader.OwnerKey owner;
-        private final List<ClaimChangeReader.ClaimChange> changes;
+        private final ClaimChangeTable.View changes;
         private final List<ClaimChangeGrouper.ChangeGroup> groups;
         private final ClaimChangeReader.ChangeCount totalCounts;
 
-        public OwnerChangeWidget(Widget parent, ClaimChangeReader.OwnerKey owner, List<ClaimChangeReader.ClaimChange> changes) {
+        public OwnerChangeWidget(Widget parent, ClaimChangeReader.OwnerKey owner, ClaimChangeTable.View changes) {
             super(parent.getParent());
             this.owner = owner;
             this.changes = changes;
@@ -764,7 +974,7 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
             // Use cached groups or compute and cache them
             String cacheKey = owner.teamId().toString();
             this.groups = groupedChangesCache.computeIfAbsent(cacheKey, k -> ClaimChangeGrouper.groupChanges(changes));
-            this.totalCounts = ClaimChangeReader.countChanges(changes);
+            this.totalCounts = owner.getCounts();
         }
 
         public int getRequiredHeight() {
@@ -882,13 +1092,8 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
         }
 
         private String getMostRecentTimestamp(ClaimChangeGrouper.ChangeGroup group) {
-            if (group.changes.isEmpty()) return "";
-
             // Get the most recent change in this group
-            ClaimChangeReader.ClaimChange mostRecent = group.changes.stream()
-                    .max((a, b) -> a.timestamp().compareTo(b.timestamp()))
-                    .orElse(null);
-
+            LocalDateTime mostRecent = group.getLatestTimestamp();
             if (mostRecent == null) return "";
 
             // Format timestamp based on config
@@ -906,7 +1111,7 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
                         java.time.format.DateTimeFormatter.ofPattern("MM-dd h:mm a");
             }
 
-            return mostRecent.timestamp().format(formatter);
+            return mostRecent.format(formatter);
         }
 
         @Override
@@ -1087,7 +1292,7 @@ public class ClaimChangeHistoryScreen extends BaseScreen {
 
             // Teleport command
             items.add(new ContextMenuItem(Component.literal("Teleport"), Icons.PLAYER, b -> {
-                String dimId = group.dimension.location().toString();
+                String dimId = ClaimDimensions.nameOf(group.dimension);
                 int surfaceY = getSurfaceY(group);
                 int playerHeight = mc.player != null ? (int)Math.ceil(mc.player.getBbHeight()) : 2;
                 int teleportY = surfaceY + playerHeight - 1;
@@ -0,0 +1,460 @@
+package com.t.claimlistftb.client.gui;
+
+import com.t.claimlistftb.client.ClaimActivityRollups;
+import com.t.claimlistftb.client.ClaimChangeListener;
+import com.t.claimlistftb.client.ClaimChangeReader;
+import com.t.claimlistftb.client.ClaimChangeTracker;
+import com.t.claimlistftb.client.ClaimMultiServerHistory;
+import com.t.claimlistftb.client.config.ClaimTrackerConfig;
+import dev.ftb.mods.ftblibrary.icon.Color4I;
+import dev.ftb.mods.ftblibrary.icon.Icon;
+import dev.ftb.mods.ftblibrary.icon.Icons;
+import dev.ftb.mods.ftblibrary.ui.*;
+import dev.ftb.mods.ftblibrary.ui.input.MouseButton;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.network.chat.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Claim changes from several servers in one timeline, newest first, with a server column.
+ * Servers load in parallel in the background (ClaimMultiServerHistory); each shows its progress at the
+ * top and its rows join the timeline as soon as it's done.
+ */
+public class MultiServerHistoryScreen extends BaseScreen {
+
+    // Rows drawn per expanded period; older ones are summarized in one line
+    private static final int MAX_ROWS = 200;
+    private static final int ROW_HEIGHT = 12;
+    private static final int TIME_COLUMN = 72;
+    private static final int SERVER_COLUMN = 70;
+
+    // Persistent state across screen opens/closes
+    private static final Set<UUID> EXCLUDED_SERVERS = new HashSet<>();
+    private static final Set<String> EXPANDED_PERIODS = new HashSet<>(Set.of("PAST_7_DAYS"));
+
+    private final BaseScreen parentScreen;
+    private SimpleButton backButton;
+    private SimpleButton serverSelectButton;
+    private Panel scrollContent;
+
+    private ClaimMultiServerHistory history;
+
+    // Loader progress last drawn, and when, so progress redraws are throttled
+    private long shownVersion = -1;
+    private long lastRefreshTime = 0;
+
+    // The connected server's rows arrive live; redraw when they do
+    private final ClaimChangeListener trackerListener = new ClaimChangeListener() {
+        @Override
+        public void onHistoryAppended() {
+            if (scrollContent != null) {
+                scrollContent.refreshWidgets();
+            }
+        }
+    };
+
+    public MultiServerHistoryScreen(BaseScreen parent) {
+        this.parentScreen = parent;
+        setWidth(320);
+    }
+
+    @Override
+    public void addWidgets() {
+        net.minecraft.client.Minecraft mc = net.minecraft.client.Minecraft.getInstance();
+        int screenWidth = mc.getWindow().getGuiScaledWidth();
+        int screenHeight = mc.getWindow().getGuiScaledHeight();
+
+        // Set height to 80% of screen height
+        setHeight((int) (screenHeight * 0.8));
+        setPos((screenWidth - width) / 2, (screenHeight - height) / 2);
+
+        ClaimChangeTracker.getInstance().addListener(trackerListener);
+
+        // Back button - top left (returns to the single-server history)
+        backButton = new SimpleButton(this, Component.empty(), Icons.BACK, (btn, mouse) -> closeGui());
+        add(backButton);
+
+        // Server select button - top right
+        serverSelectButton = new SimpleButton(this,
+                Arrays.asList(
+                        Component.literal("Select Servers"),
+                        Component.literal("Choose which servers to include").withStyle(net.minecraft.ChatFormatting.GRAY)
+                ),
+                Icons.CONTROLLER,
+                (btn, mouse) -> openServerSelector());
+        add(serverSelectButton);
+
+        openServers();
+
+        // Scrollable content area
+        scrollContent = new Panel(this) {
+            @Override
+            public void addWidgets() {
+                // Progress and legend, one line per server
+                for (ClaimMultiServerHistory.Source source : history.getSources()) {
+                    add(new ServerWidget(this, source));
+                }
+
+                LocalDateTime now = LocalDateTime.now();
+                boolean anyPeriod = false;
+                for (ClaimChangeReader.TimePeriod period : ClaimChangeReader.TimePeriod.values()) {
+                    if (history.hasChangesBetween(period.getStart(now), period.getEnd(now))) {
+                        add(new PeriodWidget(this, period));
+                        anyPeriod = true;
+                    }
+                }
+
+                if (!anyPeriod && !history.isLoading()) {
+                    add(new Widget(this) {
+                        @Override
+                        public void draw(GuiGraphics graphics, Theme theme, int x, int y, int w, int h) {
+                            String text = history.getSources().isEmpty() ? "No servers selected" : "No claim changes found";
+                            int textWidth = theme.getStringWidth(text);
+                            theme.drawString(graphics, text, x + (w - textWidth) / 2, y + 10, Color4I.rgb(0x888888), 0);
+                        }
+                    });
+                }
+            }
+
+            @Override
+            public void alignWidgets() {
+                int y = 10;
+                for (Widget widget : getWidgets()) {
+                    int requiredHeight = widget instanceof PeriodWidget periodWidget ? periodWidget.getRequiredHeight()
+                            : widget instanceof ServerWidget ? 14 : 20;
+                    widget.setPosAndSize(0, y, width, requiredHeight);
+                    y += requiredHeight + 2;
+                }
+                setHeight(Math.max(y, 22));
+            }
+
+            @Override
+            public void draw(GuiGraphics graphics, Theme theme, int x, int y, int w, int h) {
+                int allocatedHeight = MultiServerHistoryScreen.this.height - 40;
+                graphics.enableScissor(x, y, x + w, y + allocatedHeight);
+                super.draw(graphics, theme, x, y, w, allocatedHeight);
+                graphics.disableScissor();
+            }
+
+            @Override
+            public boolean mouseScrolled(double scroll) {
+                double scrollMultiplier = (isShiftKeyDown() || isCtrlKeyDown()) ? 5.0 : 1.0;
+                int maxScroll = Math.max(0, height - (MultiServerHistoryScreen.this.height - 40));
+                setScrollY(Math.max(0, Math.min(maxScroll, (int) (getScrollY() - scroll * 20 * scrollMultiplier))));
+                return true;
+            }
+        };
+
+        add(scrollContent);
+        scrollContent.refreshWidgets();
+        shownVersion = history.getVersion();
+    }
+
+    @Override
+    public void alignWidgets() {
+        backButton.setPosAndSize(5, 5, 20, 20);
+        serverSelectButton.setPosAndSize(width - 25, 5, 20, 20);
+
+        if (scrollContent != null) {
+            scrollContent.setPosAndSize(10, 30, width - 20, height - 40);
+            scrollContent.alignWidgets();
+        }
+    }
+
+    @Override
+    public void onClosed() {
+        // Queued loads are dropped; anything already read stays in the repository
+        if (history != null) {
+            history.cancel();
+        }
+        ClaimChangeTracker.getInstance().removeListener(trackerListener);
+        super.onClosed();
+    }
+
+    @Override
+    public void drawBackground(GuiGraphics graphics, Theme theme, int x, int y, int w, int h) {
+        Color4I.rgb(0x1E1E1E).withAlpha(220).draw(graphics, x, y, w, h);
+        theme.drawString(graphics, "All Servers", x + w / 2, y + 10, Color4I.WHITE, Theme.CENTERED);
+    }
+
+    @Override
+    public void tick() {
+        super.tick();
+
+        // Pick up loader progress, at most every 250ms
+        long version = history != null ? history.getVersion() : shownVersion;
+        if (version != shownVersion && System.currentTimeMillis() - lastRefreshTime > 250) {
+            lastRefreshTime = System.currentTimeMillis();
+            shownVersion = version;
+            if (scrollContent != null) {
+                scrollContent.refreshWidgets();
+            }
+        }
+    }
+
+    /**
+     * Start loading every included server, far enough back for the expanded periods (at least 24 hours).
+     */
+    private void openServers() {
+        ClaimChangeTracker tracker = ClaimChangeTracker.getInstance();
+        List<ClaimMultiServerHistory.Source> sources = new ArrayList<>();
+        for (ClaimChangeReader.ServerInfo server : ClaimChangeReader.getAvailableServers(tracker.getChangesFolder())) {
+            UUID serverId = server.serverId();
+            if (!EXCLUDED_SERVERS.contains(serverId)) {
+                sources.add(new ClaimMultiServerHistory.Source(serverId, server.serverName(),
+                        () -> ClaimChangeHistoryScreen.findServerHistory(tracker, serverId)));
+            }
+        }
+
+        if (history != null) {
+            history.cancel();
+        }
+        history = new ClaimMultiServerHistory(sources);
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = ClaimChangeReader.TimePeriod.PAST_24_HOURS.getStart(now);
+        for (ClaimChangeReader.TimePeriod period : ClaimChangeReader.TimePeriod.values()) {
+            if (EXPANDED_PERIODS.contains(period.name())) {
+                LocalDateTime start = period.getStart(now);
+                from = (start == null || start.isBefore(from)) ? start : from;
+            }
+        }
+        history.load(from);
+    }
+
+    private void openServerSelector() {
+        List<ContextMenuItem> items = new ArrayList<>();
+        ClaimChangeTracker tracker = ClaimChangeTracker.getInstance();
+
+        for (ClaimChangeReader.ServerInfo server : ClaimChangeReader.getAvailableServers(tracker.getChangesFolder())) {
+            UUID serverId = server.serverId();
+            Icon icon = EXCLUDED_SERVERS.contains(serverId) ? Icons.ACCEPT_GRAY : Icons.ACCEPT;
+            items.add(new ContextMenuItem(Component.literal(server.serverName()), icon, b -> {
+                closeContextMenu();
+                if (!EXCLUDED_SERVERS.remove(serverId)) {
+                    EXCLUDED_SERVERS.add(serverId);
+                }
+                openServers();
+                if (scrollContent != null) {
+                    scrollContent.refreshWidgets();
+                }
+            }));
+        }
+
+        if (items.isEmpty()) {
+            items.add(new ContextMenuItem(Component.literal("No saved servers"), Icons.CANCEL, b -> closeContextMenu()));
+        }
+
+        ContextMenu menu = new ContextMenu(this, items);
+        openContextMenu(menu);
+    }
+
+    private static String formatTime(LocalDateTime timestamp) {
+        java.time.format.DateTimeFormatter formatter;
+        boolean use24Hour = ClaimTrackerConfig.use24HourTime();
+        if (ClaimTrackerConfig.useDDMMFormat()) {
+            formatter = java.time.format.DateTimeFormatter.ofPattern(use24Hour ? "dd-MM HH:mm" : "dd-MM h:mm a");
+        } else {
+            formatter = java.time.format.DateTimeFormatter.ofPattern(use24Hour ? "MM-dd HH:mm" : "MM-dd h:mm a");
+        }
+        return timestamp.format(formatter);
+    }
+
+    /**
+     * Cut text to fit a width, ending in ".." if anything was cut.
+     */
+    private static String fit(Theme theme, String text, int width) {
+        if (theme.getStringWidth(text) <= width) {
+            return text;
+        }
+        int end = text.length();
+        while (end > 0 && theme.getStringWidth(text.substring(0, end) + "..") > width) {
+            end--;
+        }
+        return text.substring(0, end) + "..";
+    }
+
+    /**
+     * One server's name and load state (progress bar while loading, change count once loaded).
+     */
+    private class ServerWidget extends Widget {
+        private final ClaimMultiServerHistory.Source source;
+
+        public ServerWidget(Panel panel, ClaimMultiServerHistory.Source source) {
+            super(panel);
+            this.source = source;
+        }
+
+        @Override
+        public void draw(GuiGraphics graphics, Theme theme, int x, int y, int w, int h) {
+            Color4I.rgb(0x252525).draw(graphics, x, y, w, 14);
+            theme.drawString(graphics, fit(theme, source.getName(), w - 90), x + 4, y + 3, Color4I.WHITE, 0);
+
+            int barX = x + w - 84;
+            switch (source.getState()) {
+                case QUEUED -> theme.drawString(graphics, "Queued", barX, y + 3, Color4I.rgb(0x888888), 0);
+                case LOADING -> {
+                    Color4I.rgb(0x333333).draw(graphics, barX, y + 4, 50, 6);
+                    Color4I.rgb(0x55AA55).draw(graphics, barX, y + 4, (int) (50 * source.getProgress()), 6);
+                    String percent = (int) (source.getProgress() * 100) + "%";
+                    theme.drawString(graphics, percent, barX + 54, y + 3, Color4I.rgb(0xAAAAAA), 0);
+                }
+                case LOADED -> theme.drawString(graphics, source.view().size() + " changes", barX, y + 3,
+                        Color4I.rgb(0xAAAAAA), 0);
+                case MISSING -> theme.drawString(graphics, "No history", barX, y + 3, Color4I.rgb(0x888888), 0);
+                case FAILED -> theme.drawString(graphics, "Failed", barX, y + 3, Color4I.rgb(0xFF5555), 0);
+            }
+        }
+    }
+
+    /**
+     * A time period: totals from the servers' rollups, and the merged timeline once expanded.
+     */
+    private class PeriodWidget extends Widget {
+        private final ClaimChangeReader.TimePeriod period;
+        private final ClaimActivityRollups.Totals totals;
+        private final ClaimMultiServerHistory.Timeline timeline;
+
+        public PeriodWidget(Panel panel, ClaimChangeReader.TimePeriod period) {
+            super(panel);
+            this.period = period;
+
+            LocalDateTime now = LocalDateTime.now();
+            this.totals = history.totals(period.getStart(now), period.getEnd(now));
+
+            // Only expanded periods are merged
+            this.timeline = EXPANDED_PERIODS.contains(period.name())
+                    ? history.timeline(period.getStart(now), period.getEnd(now))
+                    : ClaimMultiServerHistory.Timeline.EMPTY;
+        }
+
+        private int shownRows() {
+            return Math.min(timeline.size(), MAX_ROWS);
+        }
+
+        public int getRequiredHeight() {
+            if (!EXPANDED_PERIODS.contains(period.name())) {
+                return 20;
+            }
+            return 20 + shownRows() * ROW_HEIGHT + (timeline.size() > MAX_ROWS ? ROW_HEIGHT : 0);
+        }
+
+        @Override
+        public void draw(GuiGraphics graphics, Theme theme, int x, int y, int w, int h) {
+            boolean expanded = EXPANDED_PERIODS.contains(period.name());
+            boolean mouseOver = getMouseY() >= y && getMouseY() < y + 20;
+
+            // Background
+            Color4I bg = mouseOver ? Color4I.rgb(0x3A3A3A) : Color4I.rgb(0x2A2A2A);
+            bg.draw(graphics, x, y, w, 20);
+
+            // Arrow
+            Icon arrow = expanded ? Icons.DOWN : Icons.RIGHT;
+            arrow.draw(graphics, x + 2, y + 2, 16, 16);
+
+            // Period name
+            theme.drawString(graphics, period.getDisplayName(), x + 20, y + 6, Color4I.WHITE, 0);
+
+            // Period totals, right-aligned: "(+X) (-Y)"
+            if (!totals.isEmpty()) {
+                int countX = x + w - 4;
+                String removeText = "(-" + totals.removed() + ")";
+                countX -= theme.getStringWidth(removeText);
+                theme.drawString(graphics, removeText, countX, y + 6, Color4I.rgb(0xFF5555), 0);
+                String addText = "(+" + totals.added() + ") ";
+                countX -= theme.getStringWidth(addText);
+                theme.drawString(graphics, addText, countX, y + 6, Color4I.rgb(0x55FF55), 0);
+            }
+
+            if (!expanded) {
+                return;
+            }
+
+            // Newest first: time | server | +/- team | dimension and coordinates
+            int rowY = y + 20;
+            int rows = shownRows();
+            for (int n = 0; n < rows; n++) {
+                int i = timeline.size() - 1 - n;
+                boolean rowMouseOver = getMouseY() >= rowY && getMouseY() < rowY + ROW_HEIGHT;
+                Color4I rowBg = rowMouseOver ? Color4I.rgb(0x3A3A3A) : Color4I.rgb(0x1E1E1E);
+                rowBg.draw(graphics, x + 10, rowY, w - 10, ROW_HEIGHT);
+
+                int textY = rowY + 2;
+                int textX = x + 14;
+                theme.drawString(graphics, formatTime(timeline.timestamp(i)), textX, textY, Color4I.rgb(0xAAAAAA), 0);
+                textX += TIME_COLUMN;
+                theme.drawString(graphics, fit(theme, timeline.source(i).getName(), SERVER_COLUMN - 4), textX, textY,
+                        Color4I.rgb(0x88CCFF), 0);
+                textX += SERVER_COLUMN;
+
+                boolean added = timeline.type(i) == ClaimChangeReader.ChangeType.ADD;
+                theme.drawString(graphics, added ? "+" : "-", textX, textY,
+                        added ? Color4I.rgb(0x55FF55) : Color4I.rgb(0xFF5555), 0);
+                textX += 8;
+
+                String dimName = timeline.dimension(i).location().getPath();
+                if (dimName.equals("the_end")) dimName = "end";
+                String where = dimName + " " + (timeline.chunkX(i) << 4) + ", " + (timeline.chunkZ(i) << 4);
+                int whereX = x + w - theme.getStringWidth(where) - 4;
+
+                String team = timeline.teamName(i);
+                team = team == null || team.isEmpty() ? "Unknown" : team;
+                theme.drawString(graphics, fit(theme, team, whereX - textX - 4), textX, textY, Color4I.rgb(0xDD99FF), 0);
+                theme.drawString(graphics, where, whereX, textY, Color4I.rgb(0xFFFF88), 0);
+
+                rowY += ROW_HEIGHT;
+            }
+
+            if (timeline.size() > MAX_ROWS) {
+                String more = "... " + (timeline.size() - MAX_ROWS) + " older changes";
+                theme.drawString(graphics, more, x + 14, rowY + 2, Color4I.rgb(0x888888), 0);
+            }
+        }
+
+        @Override
+        public void addMouseOverText(dev.ftb.mods.ftblibrary.util.TooltipList list) {
+            int row = (getMouseY() - getY() - 20) / ROW_HEIGHT;
+            if (!EXPANDED_PERIODS.contains(period.name()) || getMouseY() < getY() + 20 || row >= shownRows()) {
+                return;
+            }
+
+            // Full details of the hovered row
+            ClaimChangeReader.ClaimChange change = timeline.get(timeline.size() - 1 - row);
+            list.add(Component.literal(timeline.source(timeline.size() - 1 - row).getName()));
+            list.add(Component.literal(change.teamName() + " " + (change.type() == ClaimChangeReader.ChangeType.ADD
+                    ? "claimed" : "unclaimed")).withStyle(net.minecraft.ChatFormatting.GRAY));
+            list.add(Component.literal(change.dimension().location() + " " + (change.chunkX() << 4) + ", "
+                    + (change.chunkZ() << 4)).withStyle(net.minecraft.ChatFormatting.GRAY));
+        }
+
+        @Override
+        public boolean mousePressed(MouseButton button) {
+            if (!isMouseOver()) return false;
+
+            // Header toggles the period; expanding reads any missing segments on the loader pool
+            if (getMouseY() < getY() + 20 && button.isLeft()) {
+                if (!EXPANDED_PERIODS.remove(period.name())) {
+                    EXPANDED_PERIODS.add(period.name());
+                    history.load(period.getStart(LocalDateTime.now()));
+                }
+                if (scrollContent != null) {
+                    scrollContent.refreshWidgets();
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public Theme getTheme() {
+        return parentScreen.getTheme();
+    }
+
+    @Override
+    public void onBack() {
+        parentScreen.openGui();
+    }
+}
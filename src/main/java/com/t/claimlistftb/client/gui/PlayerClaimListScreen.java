@@ -1,5 +1,6 @@
 package com.t.claimlistftb.client.gui;
 
+import com.t.claimlistftb.client.ClaimDimensions;
 import com.t.claimlistftb.client.ClaimGrouper;
 import com.t.claimlistftb.client.ClaimOwner;
 import com.t.claimlistftb.client.PlayerClaimFinder;
@@ -618,7 +619,7 @@ public class PlayerClaimListScreen extends BaseScreen {
 
             // Teleport button - add player height offset minus 1 (so feet are on surface)
             items.add(new ContextMenuItem(Component.literal("Teleport"), Icons.PLAYER, b -> {
-                String dimId = group.dimension().location().toString();
+                String dimId = ClaimDimensions.nameOf(group.dimension());
                 int surfaceY = getSurfaceY(group);
                 int playerHeight = mc.player != null ? (int)Math.ceil(mc.player.getBbHeight()) : 2;
                 int teleportY = surfaceY + playerHeight - 1;
@@ -54,20 +54,18 @@ public class FTBChunksClientMixin {
      */
     @Inject(method = "updateChunksFromServer", at = @At("HEAD"))
     private void onUpdateChunksFromServer(ResourceKey<Level> dimId, UUID teamId, Collection<ChunkSyncInfo> chunkSyncInfoList, CallbackInfo ci) {
-        ClaimChangeTracker tracker = ClaimChangeTracker.getInstance();
-        
-        // Process each chunk update and detect changes
-        for (ChunkSyncInfo info : chunkSyncInfoList) {
-            tracker.processChunkUpdate(dimId, info.x(), info.z(), info.claimed(), teamId);
-        }
+        // Hand the packet to the tracker's ingest thread; change detection happens there
+        ClaimChangeTracker.getInstance().processChunkBatch(dimId, teamId, chunkSyncInfoList);
     }
 
     /**
-     * Periodic tick - only used to detect when initial sync is complete.
-     * Runs once per second (every 20 ticks).
+     * Periodic tick - delivers tracker events every tick; sync completion
+     * and AFK checks run once per second (every 20 ticks).
      */
     @Inject(method = "clientTick", at = @At("RETURN"))
     private void onClientTick(Minecraft mc, CallbackInfo ci) {
+        ClaimChangeTracker.getInstance().dispatchEvents();
+
         claimlistftb$tickCounter++;
         if (claimlistftb$tickCounter >= 20) {
             claimlistftb$tickCounter = 0;
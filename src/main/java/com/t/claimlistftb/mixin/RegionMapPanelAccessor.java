@@ -0,0 +1,16 @@
+package com.t.claimlistftb.mixin;
+
+import dev.ftb.mods.ftbchunks.client.gui.RegionMapPanel;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+@Mixin(value = RegionMapPanel.class, remap = false)
+public interface RegionMapPanelAccessor {
+
+    // Block under the mouse the last time it was over the map
+    @Accessor("blockX")
+    int getBlockX();
+
+    @Accessor("blockZ")
+    int getBlockZ();
+}